@@ -0,0 +1,125 @@
+package com.rnappauth.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.facebook.react.soloader.OpenSourceMergedSoMapping;
+import com.facebook.soloader.SoLoader;
+import com.rnappauth.utils.ConversionOptions;
+import com.rnappauth.utils.DateUtil;
+import com.rnappauth.utils.MapUtil;
+import com.rnappauth.utils.TokenResponseFactory;
+
+import net.openid.appauth.TokenResponse;
+
+import org.json.JSONException;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Measures the conversions performed on every authorize and refresh result before it is sent
+ * over the bridge. Run with ./gradlew :benchmark:connectedReleaseAndroidTest on a physical device.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ConversionBenchmark {
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private TokenResponse tokenResponse;
+    private Map<String, String> additionalParameters;
+    private String serializedIdTokenClaims;
+
+    @BeforeClass
+    public static void loadReactNative() throws IOException {
+        // WritableNativeMap is backed by the React Native JNI libraries
+        SoLoader.init(InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                OpenSourceMergedSoMapping.INSTANCE);
+    }
+
+    @Before
+    public void createPayloads() throws JSONException {
+        tokenResponse = Payloads.tokenResponse();
+        additionalParameters = Payloads.additionalParameters();
+        serializedIdTokenClaims = Payloads.idTokenClaims().toString();
+    }
+
+    @Test
+    public void tokenResponseToMap() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            TokenResponseFactory.tokenResponseToMap(tokenResponse);
+        }
+    }
+
+    @Test
+    public void tokenResponseToMapWithEpochMillisDates() {
+        ConversionOptions.setDateFormat(ConversionOptions.DATE_FORMAT_EPOCH_MILLIS);
+        try {
+            BenchmarkState state = benchmarkRule.getState();
+            while (state.keepRunning()) {
+                TokenResponseFactory.tokenResponseToMap(tokenResponse);
+            }
+        } finally {
+            ConversionOptions.setDateFormat(ConversionOptions.DATE_FORMAT_ISO_8601);
+        }
+    }
+
+    @Test
+    public void tokenResponseToMapWithIdTokenClaims() {
+        ConversionOptions.setDecodeIdTokenClaims(true);
+        try {
+            BenchmarkState state = benchmarkRule.getState();
+            while (state.keepRunning()) {
+                TokenResponseFactory.tokenResponseToMap(tokenResponse);
+            }
+        } finally {
+            ConversionOptions.setDecodeIdTokenClaims(false);
+        }
+    }
+
+    @Test
+    public void createAdditionalParametersMap() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            MapUtil.createAdditionalParametersMap(additionalParameters);
+        }
+    }
+
+    @Test
+    public void createAdditionalParametersMapWithoutJsonExpansion() {
+        ConversionOptions.setExpandJsonParameters(false);
+        try {
+            BenchmarkState state = benchmarkRule.getState();
+            while (state.keepRunning()) {
+                MapUtil.createAdditionalParametersMap(additionalParameters);
+            }
+        } finally {
+            ConversionOptions.setExpandJsonParameters(true);
+        }
+    }
+
+    @Test
+    public void convertJsonStringToMap() throws IOException {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            MapUtil.convertJsonStringToMap(serializedIdTokenClaims);
+        }
+    }
+
+    @Test
+    public void formatTimestamp() {
+        BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            DateUtil.formatTimestamp(Payloads.EXPIRATION_TIME);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.rnappauth.benchmark;
+
+import android.net.Uri;
+import android.util.Base64;
+
+import net.openid.appauth.AuthorizationServiceConfiguration;
+import net.openid.appauth.TokenRequest;
+import net.openid.appauth.TokenResponse;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Representative provider responses. Sizes are modelled on enterprise identity providers that put
+ * group memberships and profile data in the ID token and return nested JSON objects as
+ * additional token response parameters.
+ */
+final class Payloads {
+
+    static final long EXPIRATION_TIME = 1893456000000L;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int GROUP_COUNT = 40;
+    private static final int ROLE_COUNT = 12;
+
+    private Payloads() {
+    }
+
+    static JSONObject idTokenClaims() throws JSONException {
+        JSONObject claims = new JSONObject();
+        claims.put("iss", "https://login.example.com/3f1c2a9e-7d4b-4f5e-9a61-0c8d2b7e4a10/v2.0");
+        claims.put("sub", "AAAAAAAAAAAAAAAAAAAAAIkzqFVrSaSaFHy782bbtaQ");
+        claims.put("aud", "6731de76-14a6-49ae-97bc-6eba6914391e");
+        claims.put("exp", EXPIRATION_TIME / 1000);
+        claims.put("iat", EXPIRATION_TIME / 1000 - 3600);
+        claims.put("nbf", EXPIRATION_TIME / 1000 - 3600);
+        claims.put("auth_time", EXPIRATION_TIME / 1000 - 3700);
+        claims.put("nonce", "1XJ4eE5rb5zZ5GAxq1PENhGNY6l-JXsTQ7LIHVbhHbc");
+        claims.put("at_hash", "pZq8AAr6MmuDbzqbYO2gJg");
+        claims.put("name", "Alex Example");
+        claims.put("given_name", "Alex");
+        claims.put("family_name", "Example");
+        claims.put("preferred_username", "alex.example@example.com");
+        claims.put("email", "alex.example@example.com");
+        claims.put("email_verified", true);
+        claims.put("locale", "en-GB");
+        claims.put("zoneinfo", "Europe/London");
+        claims.put("tid", "3f1c2a9e-7d4b-4f5e-9a61-0c8d2b7e4a10");
+        claims.put("oid", "00000000-0000-0000-66f3-3332eca7ea81");
+        claims.put("amr", new JSONArray().put("pwd").put("mfa"));
+
+        JSONArray groups = new JSONArray();
+        for (int i = 0; i < GROUP_COUNT; i++) {
+            groups.put(String.format("%08x-4e2a-4c1b-8f3d-%012x", i * 7919, i * 104729L));
+        }
+        claims.put("groups", groups);
+
+        JSONArray roles = new JSONArray();
+        for (int i = 0; i < ROLE_COUNT; i++) {
+            roles.put("Application.Role." + i);
+        }
+        claims.put("roles", roles);
+
+        JSONObject address = new JSONObject();
+        address.put("street_address", "1 Example Street");
+        address.put("locality", "London");
+        address.put("postal_code", "EC1A 1AA");
+        address.put("country", "GB");
+        claims.put("address", address);
+
+        return claims;
+    }
+
+    static String idToken() throws JSONException {
+        JSONObject header = new JSONObject();
+        header.put("alg", "RS256");
+        header.put("kid", "nOo3ZDrODXEK1jKWhXslHR_KXEg");
+        header.put("typ", "JWT");
+
+        byte[] signature = new byte[256];
+        for (int i = 0; i < signature.length; i++) {
+            signature[i] = (byte) i;
+        }
+
+        return encode(header.toString().getBytes(UTF_8))
+                + "." + encode(idTokenClaims().toString().getBytes(UTF_8))
+                + "." + encode(signature);
+    }
+
+    /*
+     * Mix of plain values and nested JSON objects, which are expanded into maps
+     */
+    static Map<String, String> additionalParameters() throws JSONException {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("session_state", "5b2c1f9e-0c6a-4d2e-b1c3-7a9e8d4f2b10");
+        parameters.put("ext_expires_in", "3599");
+        parameters.put("not-before-policy", "0");
+        parameters.put("refresh_expires_in", "1800");
+
+        JSONObject profile = new JSONObject();
+        profile.put("department", "Engineering");
+        profile.put("cost_center", 4711);
+        profile.put("manager", new JSONObject().put("id", "00000000-0000-0000-1234-56789abcdef0")
+                .put("name", "Sam Manager"));
+        profile.put("entitlements", new JSONArray().put("read").put("write").put("admin"));
+        parameters.put("user_profile", profile.toString());
+
+        JSONObject authorization = new JSONObject();
+        authorization.put("permissions", idTokenClaims().getJSONArray("roles"));
+        authorization.put("tenant", new JSONObject().put("id", 42).put("region", "eu-west-1")
+                .put("features", new JSONObject().put("sso", true).put("audit", false)));
+        parameters.put("authorization_details", authorization.toString());
+
+        return parameters;
+    }
+
+    static TokenResponse tokenResponse() throws JSONException {
+        AuthorizationServiceConfiguration configuration = new AuthorizationServiceConfiguration(
+                Uri.parse("https://login.example.com/oauth2/v2.0/authorize"),
+                Uri.parse("https://login.example.com/oauth2/v2.0/token"));
+        TokenRequest request = new TokenRequest.Builder(configuration, "6731de76-14a6-49ae-97bc-6eba6914391e")
+                .setRefreshToken("0.AAAAdQ4rZ3jT8EKh1pR2s9xV0w")
+                .setRedirectUri(Uri.parse("com.example.app:/oauth2redirect"))
+                .build();
+
+        return new TokenResponse.Builder(request)
+                .setTokenType(TokenResponse.TOKEN_TYPE_BEARER)
+                .setAccessToken(idToken())
+                .setAccessTokenExpirationTime(EXPIRATION_TIME)
+                .setIdToken(idToken())
+                .setRefreshToken("0.AAAAdQ4rZ3jT8EKh1pR2s9xV0wAAAAAAAAAwAAAAAAAAAJkAAA.AgABAAEAAAD--DLA3VO7QrddgJg7WevrAgDs_wQA9P8")
+                .setScope("openid profile email offline_access")
+                .setAdditionalParameters(additionalParameters())
+                .build();
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.encodeToString(bytes, Base64.URL_SAFE | Base64.NO_WRAP | Base64.NO_PADDING);
+    }
+}
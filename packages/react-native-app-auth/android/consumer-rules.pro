@@ -0,0 +1,12 @@
+# AuthorizationRequestPerformer creates the token and registration request tasks of AppAuth
+# through reflection, passing them AppAuth's SystemClock. Without these rules R8 renames or
+# removes them and requests fall back to the serial AsyncTask executor.
+-keep class net.openid.appauth.AuthorizationService$TokenRequestTask {
+    <init>(...);
+}
+-keep class net.openid.appauth.AuthorizationService$RegistrationRequestTask {
+    <init>(...);
+}
+-keep class net.openid.appauth.SystemClock {
+    public static final net.openid.appauth.SystemClock INSTANCE;
+}
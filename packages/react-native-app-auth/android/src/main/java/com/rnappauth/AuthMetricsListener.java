@@ -0,0 +1,40 @@
+package com.rnappauth;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+/**
+ * Receives metrics about the requests the module makes, so an app can forward them to its own
+ * monitoring without going through the JS bridge. Register one with
+ * {@link RNAppAuthPackage#addMetricsListener}, typically in Application.onCreate.
+ *
+ * Methods are called on whichever thread the event happened, which may be the main thread, so
+ * implementations must be thread safe and return quickly.
+ */
+public interface AuthMetricsListener {
+
+    /*
+     * A call needed the discovery document of an issuer, which was either found in the cache or
+     * had to be fetched
+     */
+    void onServiceConfigurationLookup(@NonNull String issuer, boolean cacheHit);
+
+    /*
+     * A token request to the token endpoint of issuer completed. Each attempt is reported, so a
+     * retried request is reported once per attempt. The error code is null when tokens were
+     * received. The issuer is the token endpoint when the service configuration was passed in
+     * without a discovery document
+     */
+    void onTokenRequestCompleted(@NonNull String issuer, @NonNull String grantType, long durationMillis,
+            @Nullable String errorCode);
+
+    /*
+     * A failed token request is about to be sent again, as attempt number attempt
+     */
+    void onTokenRequestRetried(@NonNull String issuer, int attempt);
+
+    /*
+     * A call to the module was rejected with the error code
+     */
+    void onCallFailed(@NonNull String errorCode);
+}
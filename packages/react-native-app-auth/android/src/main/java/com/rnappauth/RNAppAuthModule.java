@@ -7,6 +7,9 @@ import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.content.ActivityNotFoundException;
 import androidx.annotation.Nullable;
 import androidx.browser.customtabs.CustomTabsCallback;
@@ -17,22 +20,44 @@ import androidx.browser.customtabs.CustomTabsIntent;
 import androidx.browser.customtabs.TrustedWebUtils;
 
 import com.facebook.react.bridge.ActivityEventListener;
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.Callback;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.bridge.ReactContextBaseJavaModule;
 import com.facebook.react.bridge.ReactMethod;
 import com.facebook.react.bridge.Promise;
+import com.facebook.react.bridge.PromiseImpl;
 import com.facebook.react.bridge.ReadableArray;
 import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.WritableMap;
 import com.facebook.react.bridge.ReadableType;
-
+import com.facebook.react.modules.core.DeviceEventManagerModule;
+
+import com.rnappauth.utils.AuthFlowRegistry;
+import com.rnappauth.utils.AuthMetrics;
+import com.rnappauth.utils.AuthorizationRequestPerformer;
+import com.rnappauth.utils.AuthorizationServicePool;
+import com.rnappauth.utils.CircuitBreaker;
+import com.rnappauth.utils.ConnectionWarmer;
+import com.rnappauth.utils.ConversionOptions;
 import com.rnappauth.utils.MapUtil;
 import com.rnappauth.utils.MutableBrowserAllowList;
+import com.rnappauth.utils.NetworkExecutor;
 import com.rnappauth.utils.UnsafeConnectionBuilder;
 import com.rnappauth.utils.RegistrationResponseFactory;
+import com.rnappauth.utils.RetryPolicy;
 import com.rnappauth.utils.TokenResponseFactory;
 import com.rnappauth.utils.EndSessionResponseFactory;
+import com.rnappauth.utils.FlowTimings;
+import com.rnappauth.utils.IdTokenVerifier;
+import com.rnappauth.utils.InMemoryAuthMetrics;
+import com.rnappauth.utils.JwksCache;
+import com.rnappauth.utils.OkHttpConnectionBuilder;
 import com.rnappauth.utils.CustomConnectionBuilder;
+import com.rnappauth.utils.ServiceConfigurationCache;
+import com.rnappauth.utils.ServiceConfigurationFetcher;
+import com.rnappauth.utils.SingleFlight;
+import com.rnappauth.utils.TokenStore;
 
 import net.openid.appauth.AppAuthConfiguration;
 import net.openid.appauth.AuthorizationException;
@@ -40,10 +65,12 @@ import net.openid.appauth.AuthorizationRequest;
 import net.openid.appauth.AuthorizationResponse;
 import net.openid.appauth.AuthorizationService;
 import net.openid.appauth.AuthorizationServiceConfiguration;
+import net.openid.appauth.AuthorizationServiceDiscovery;
 import net.openid.appauth.ClientAuthentication;
 import net.openid.appauth.ClientSecretBasic;
 import net.openid.appauth.ClientSecretPost;
 import net.openid.appauth.CodeVerifierUtil;
+import net.openid.appauth.NoClientAuthentication;
 import net.openid.appauth.RegistrationRequest;
 import net.openid.appauth.RegistrationResponse;
 import net.openid.appauth.ResponseTypeValues;
@@ -58,39 +85,144 @@ import net.openid.appauth.connectivity.ConnectionBuilder;
 import net.openid.appauth.connectivity.DefaultConnectionBuilder;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class RNAppAuthModule extends ReactContextBaseJavaModule implements ActivityEventListener {
 
     public static final String CUSTOM_TAB_PACKAGE_NAME = "com.android.chrome";
+    public static final String SCHEDULED_REFRESH_EVENT = "RNAppAuthScheduledRefresh";
+    private static final String HTTP_CLIENT_DEFAULT = "default";
+    private static final String HTTP_CLIENT_OKHTTP = "okhttp";
+
+    /*
+     * The configurations are keyed by their headers and timeouts, so the number of distinct ones
+     * is up to the app. Only the most recently used are kept
+     */
+    private static final int MAX_APP_AUTH_CONFIGURATIONS = 8;
+
+    /*
+     * AppAuth calls back on the main thread, so results are converted to maps here instead,
+     * since converting a large response and decoding its ID token claims can drop frames.
+     * A single thread keeps results of the same kind settling in the order they arrived
+     */
+    private static final Executor CONVERSION_EXECUTOR = Executors.newSingleThreadExecutor();
+
+    /*
+     * Used for background revalidations, which only need the cache to be updated
+     */
+    private static final AuthorizationServiceConfiguration.RetrieveConfigurationCallback IGNORE_SERVICE_CONFIGURATION =
+            new AuthorizationServiceConfiguration.RetrieveConfigurationCallback() {
+                @Override
+                public void onFetchConfigurationCompleted(
+                        @Nullable AuthorizationServiceConfiguration serviceConfiguration,
+                        @Nullable AuthorizationException ex) {
+                }
+            };
 
     private final ReactApplicationContext reactContext;
-    private Promise promise;
-    private boolean dangerouslyAllowInsecureHttpRequests;
-    private Boolean skipCodeExchange;
-    private Boolean usePKCE;
-    private Boolean useNonce;
-    private String codeVerifier;
-    private String clientAuthMethod = "basic";
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private Map<String, String> registrationRequestHeaders = null;
     private Map<String, String> authorizationRequestHeaders = null;
     private Map<String, String> tokenRequestHeaders = null;
-    private Map<String, String> additionalParametersMap;
-    private String clientSecret;
-    private final ConcurrentHashMap<String, AuthorizationServiceConfiguration> mServiceConfigurations = new ConcurrentHashMap<>();
+    private final AuthFlowRegistry mFlows = new AuthFlowRegistry();
+    private final ServiceConfigurationCache mServiceConfigurations;
+    private final IdTokenVerifier mIdTokenVerifier = new IdTokenVerifier(new JwksCache());
+    private volatile boolean verifyIdTokenSignatures = false;
+    private volatile String httpClient = HTTP_CLIENT_DEFAULT;
+    private volatile RetryPolicy retryPolicy = RetryPolicy.NONE;
+    @Nullable private volatile CircuitBreaker circuitBreaker = null;
+    private volatile boolean includeTimings = false;
+    private final Map<List<Object>, AppAuthConfiguration> mAppAuthConfigurations =
+            new LinkedHashMap<List<Object>, AppAuthConfiguration>(MAX_APP_AUTH_CONFIGURATIONS + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, AppAuthConfiguration> eldest) {
+                    return size() > MAX_APP_AUTH_CONFIGURATIONS;
+                }
+            };
+    private final AuthorizationServicePool mAuthorizationServices;
+    private final ConcurrentHashMap<List<Object>, BrowserMatcher> mBrowserAllowLists = new ConcurrentHashMap<>();
+    private final SingleFlight<String, AuthorizationServiceConfiguration.RetrieveConfigurationCallback> mPendingServiceConfigurations = new SingleFlight<>();
+    private final SingleFlight<List<String>, Promise> mPendingRefreshes = new SingleFlight<>();
+    private final TokenRefreshScheduler mRefreshScheduler;
+    private final TokenStore mTokenStore;
     private boolean isPrefetched = false;
 
     public RNAppAuthModule(ReactApplicationContext reactContext) {
         super(reactContext);
         this.reactContext = reactContext;
+        this.mServiceConfigurations = new ServiceConfigurationCache(reactContext);
+        this.mAuthorizationServices = new AuthorizationServicePool(reactContext);
+        this.mTokenStore = new TokenStore(reactContext);
+        this.mRefreshScheduler = new TokenRefreshScheduler(new TokenRefreshScheduler.PromiseFactory() {
+            @Override
+            public Promise create(List<String> key) {
+                return createScheduledRefreshPromise(key);
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                reactContext.runOnNativeModulesQueueThread(command);
+            }
+        });
         reactContext.addActivityEventListener(this);
     }
 
+    /*
+     * Apply process wide options. Only the options present are changed
+     */
+    @ReactMethod
+    public void configure(final ReadableMap options, final Promise promise) {
+        try {
+            if (options.hasKey("dateFormat")) {
+                ConversionOptions.setDateFormat(options.getString("dateFormat"));
+            }
+            if (options.hasKey("expandJsonParameters")) {
+                ConversionOptions.setExpandJsonParameters(options.getBoolean("expandJsonParameters"));
+            }
+            if (options.hasKey("largeIntegersAsStrings")) {
+                ConversionOptions.setLargeIntegersAsStrings(options.getBoolean("largeIntegersAsStrings"));
+            }
+            if (options.hasKey("decodeIdTokenClaims")) {
+                ConversionOptions.setDecodeIdTokenClaims(options.getBoolean("decodeIdTokenClaims"));
+            }
+            if (options.hasKey("verifyIdTokenSignatures")) {
+                verifyIdTokenSignatures = options.getBoolean("verifyIdTokenSignatures");
+            }
+            if (options.hasKey("httpClient")) {
+                String client = options.getString("httpClient");
+                if (!HTTP_CLIENT_DEFAULT.equals(client) && !HTTP_CLIENT_OKHTTP.equals(client)) {
+                    throw new IllegalArgumentException("Unsupported httpClient " + client);
+                }
+                httpClient = client;
+            }
+            if (options.hasKey("retry")) {
+                retryPolicy = createRetryPolicy(options.getMap("retry"));
+            }
+            if (options.hasKey("circuitBreaker")) {
+                circuitBreaker = createCircuitBreaker(options.getMap("circuitBreaker"));
+            }
+            if (options.hasKey("includeTimings")) {
+                includeTimings = options.getBoolean("includeTimings");
+            }
+            if (options.hasKey("networkConcurrency")) {
+                NetworkExecutor.setConcurrency(options.getInt("networkConcurrency"));
+            }
+            promise.resolve(null);
+        } catch (Exception e) {
+            rejectPromise(promise, "configuration_error", e.getMessage(), null);
+        }
+    }
+
     @ReactMethod
     public void prefetchConfiguration(
             final Boolean warmAndPrefetchChrome,
@@ -102,6 +234,7 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
             final boolean dangerouslyAllowInsecureHttpRequests,
             final ReadableMap customHeaders,
             final Double connectionTimeoutMillis,
+            final boolean warmTokenEndpoint,
             final Promise promise) {
         if (warmAndPrefetchChrome) {
             warmChromeCustomTab(reactContext, issuer);
@@ -110,46 +243,80 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
         this.parseHeaderMap(customHeaders);
         final ConnectionBuilder builder = createConnectionBuilder(dangerouslyAllowInsecureHttpRequests,
                 this.authorizationRequestHeaders, connectionTimeoutMillis);
-        final CountDownLatch fetchConfigurationLatch = new CountDownLatch(1);
-
-        if (!isPrefetched) {
-            if (serviceConfiguration != null && !this.hasServiceConfiguration(issuer)) {
-                try {
-                    setServiceConfiguration(issuer, createAuthorizationServiceConfiguration(serviceConfiguration));
-                    isPrefetched = true;
-                    fetchConfigurationLatch.countDown();
-                } catch (Exception e) {
-                    promise.reject("configuration_error", "Failed to convert serviceConfiguration", e);
+        // the warm-up goes to the token endpoint, so it carries the token request headers
+        final ConnectionBuilder tokenBuilder = createConnectionBuilder(dangerouslyAllowInsecureHttpRequests,
+                this.tokenRequestHeaders, connectionTimeoutMillis);
+
+        if (isPrefetched) {
+            if (warmTokenEndpoint) {
+                warmTokenEndpoint(findTokenEndpoint(issuer, serviceConfiguration), tokenBuilder);
+            }
+            promise.resolve(true);
+            return;
+        }
+
+        if (serviceConfiguration != null) {
+            try {
+                AuthorizationServiceConfiguration configuration =
+                        createAuthorizationServiceConfiguration(serviceConfiguration);
+                setServiceConfiguration(issuer, configuration);
+                if (warmTokenEndpoint) {
+                    warmTokenEndpoint(configuration.tokenEndpoint, tokenBuilder);
                 }
-            } else if (!hasServiceConfiguration(issuer)) {
-                final Uri issuerUri = Uri.parse(issuer);
-                AuthorizationServiceConfiguration.fetchFromUrl(
-                        buildConfigurationUriFromIssuer(issuerUri),
-                        new AuthorizationServiceConfiguration.RetrieveConfigurationCallback() {
-                            public void onFetchConfigurationCompleted(
-                                    @Nullable AuthorizationServiceConfiguration fetchedConfiguration,
-                                    @Nullable AuthorizationException ex) {
-                                if (ex != null) {
-                                    promise.reject("service_configuration_fetch_error", "Failed to fetch configuration",
-                                            ex);
-                                    return;
-                                }
-                                setServiceConfiguration(issuer, fetchedConfiguration);
+                isPrefetched = true;
+                promise.resolve(true);
+            } catch (Exception e) {
+                rejectPromise(promise, "configuration_error", "Failed to convert serviceConfiguration", e);
+            }
+        } else if (!hasServiceConfiguration(issuer)) {
+            // the promise is settled once, by whichever comes first of the fetch and the timeout;
+            // a fetch that outlives the timeout still populates the cache for later calls
+            final AtomicBoolean settled = new AtomicBoolean(false);
+            final Runnable timeout = new Runnable() {
+                @Override
+                public void run() {
+                    if (settled.compareAndSet(false, true)) {
+                        rejectPromise(promise, "service_configuration_fetch_error", "Timed out fetching configuration",
+                                null);
+                    }
+                }
+            };
+
+            fetchServiceConfiguration(
+                    issuer,
+                    new AuthorizationServiceConfiguration.RetrieveConfigurationCallback() {
+                        public void onFetchConfigurationCompleted(
+                                @Nullable AuthorizationServiceConfiguration fetchedConfiguration,
+                                @Nullable AuthorizationException ex) {
+                            mainHandler.removeCallbacks(timeout);
+                            if (ex == null) {
                                 isPrefetched = true;
-                                fetchConfigurationLatch.countDown();
+                                if (warmTokenEndpoint && fetchedConfiguration != null) {
+                                    warmTokenEndpoint(fetchedConfiguration.tokenEndpoint, tokenBuilder);
+                                }
                             }
-                        },
-                        builder);
-            }
-        } else {
-            fetchConfigurationLatch.countDown();
-        }
+                            if (!settled.compareAndSet(false, true)) {
+                                return;
+                            }
+                            if (ex != null) {
+                                rejectPromise(promise, "service_configuration_fetch_error",
+                                        "Failed to fetch configuration", ex);
+                                return;
+                            }
+                            promise.resolve(true);
+                        }
+                    },
+                    builder);
 
-        try {
-            fetchConfigurationLatch.await();
-            promise.resolve(isPrefetched);
-        } catch (Exception e) {
-            promise.reject("service_configuration_fetch_error", "Failed to await fetch configuration", e);
+            mainHandler.postDelayed(timeout, getPrefetchTimeoutMillis(connectionTimeoutMillis));
+        } else {
+            // already known, possibly from the persistent cache of a previous launch
+            AuthorizationServiceConfiguration configuration = getServiceConfiguration(issuer, builder);
+            if (warmTokenEndpoint && configuration != null) {
+                warmTokenEndpoint(configuration.tokenEndpoint, tokenBuilder);
+            }
+            isPrefetched = true;
+            promise.resolve(true);
         }
     }
 
@@ -178,9 +345,8 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
         // well-known id endpoint
         if (serviceConfiguration != null || hasServiceConfiguration(issuer)) {
             try {
-                final AuthorizationServiceConfiguration serviceConfig = hasServiceConfiguration(issuer)
-                        ? getServiceConfiguration(issuer)
-                        : createAuthorizationServiceConfiguration(serviceConfiguration);
+                final AuthorizationServiceConfiguration serviceConfig =
+                        resolveServiceConfiguration(serviceConfiguration, issuer, builder);
                 registerWithConfiguration(
                         serviceConfig,
                         appAuthConfiguration,
@@ -192,23 +358,20 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
                         additionalParametersMap,
                         promise);
             } catch (Exception e) {
-                promise.reject("registration_failed", e.getMessage());
+                rejectPromise(promise, "registration_failed", e.getMessage(), null);
             }
         } else {
-            final Uri issuerUri = Uri.parse(issuer);
-            AuthorizationServiceConfiguration.fetchFromUrl(
-                    buildConfigurationUriFromIssuer(issuerUri),
+            fetchServiceConfiguration(
+                    issuer,
                     new AuthorizationServiceConfiguration.RetrieveConfigurationCallback() {
                         public void onFetchConfigurationCompleted(
                                 @Nullable AuthorizationServiceConfiguration fetchedConfiguration,
                                 @Nullable AuthorizationException ex) {
                             if (ex != null) {
-                                promise.reject("service_configuration_fetch_error", ex.getLocalizedMessage(), ex);
+                                rejectPromise(promise, "service_configuration_fetch_error", ex.getLocalizedMessage(), ex);
                                 return;
                             }
 
-                            setServiceConfiguration(issuer, fetchedConfiguration);
-
                             registerWithConfiguration(
                                     fetchedConfiguration,
                                     appAuthConfiguration,
@@ -243,6 +406,7 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
             final ReadableMap customHeaders,
             final ReadableArray androidAllowCustomBrowsers,
             final boolean androidTrustedWebActivity,
+            final String androidTokenStoreKey,
             final Promise promise) {
         this.parseHeaderMap(customHeaders);
         final ConnectionBuilder builder = createConnectionBuilder(dangerouslyAllowInsecureHttpRequests,
@@ -251,23 +415,48 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
                 dangerouslyAllowInsecureHttpRequests, androidAllowCustomBrowsers);
         final HashMap<String, String> additionalParametersMap = MapUtil.readableMapToHashMap(additionalParameters);
 
-        // store args in private fields for later use in onActivityResult handler
-        this.promise = promise;
-        this.dangerouslyAllowInsecureHttpRequests = dangerouslyAllowInsecureHttpRequests;
-        this.additionalParametersMap = additionalParametersMap;
-        this.clientSecret = clientSecret;
-        this.clientAuthMethod = clientAuthMethod;
-        this.skipCodeExchange = skipCodeExchange;
-        this.useNonce = useNonce;
-        this.usePKCE = usePKCE;
+        // a call identical to one in progress, like a double tap, waits for the result of that one
+        rejectFlows(mFlows.getExpired(), "Flow expired before a result was received");
+        final AuthFlowRegistry.Flow flow;
+        try {
+            flow = mFlows.join(
+                    AuthFlowRegistry.TYPE_AUTHORIZE,
+                    Arrays.<Object>asList("authorize", issuer, toHashMap(serviceConfiguration), redirectUrl, clientId,
+                            clientSecret, toArrayList(scopes), new HashMap<>(additionalParametersMap),
+                            skipCodeExchange, connectionTimeoutMillis, useNonce, usePKCE, clientAuthMethod,
+                            dangerouslyAllowInsecureHttpRequests, toHashMap(customHeaders),
+                            toArrayList(androidAllowCustomBrowsers), androidTrustedWebActivity, androidTokenStoreKey),
+                    additionalParametersMap.get("state"),
+                    promise);
+        } catch (IllegalStateException e) {
+            rejectPromise(promise, "authentication_failed", e.getMessage(), null);
+            return;
+        }
+        if (flow == null) {
+            return;
+        }
+
+        // store args in the flow for later use in onActivityResult handler
+        flow.dangerouslyAllowInsecureHttpRequests = dangerouslyAllowInsecureHttpRequests;
+        flow.additionalParametersMap = additionalParametersMap;
+        flow.tokenRequestHeaders = this.tokenRequestHeaders;
+        flow.clientSecret = clientSecret;
+        flow.clientAuthMethod = clientAuthMethod;
+        flow.skipCodeExchange = skipCodeExchange != null && skipCodeExchange;
+        flow.usePKCE = usePKCE != null && usePKCE;
+        flow.tokenStoreKey = androidTokenStoreKey;
+        flow.jwksUri = getJwksUri(serviceConfiguration);
 
         // when serviceConfiguration is provided, we don't need to hit up the OpenID
         // well-known id endpoint
         if (serviceConfiguration != null || hasServiceConfiguration(issuer)) {
             try {
-                final AuthorizationServiceConfiguration serviceConfig = hasServiceConfiguration(issuer)
-                        ? getServiceConfiguration(issuer)
-                        : createAuthorizationServiceConfiguration(serviceConfiguration);
+                recordConfigurationSource(flow.timings, issuer, serviceConfiguration != null
+                        ? FlowTimings.SOURCE_PROVIDED
+                        : FlowTimings.SOURCE_CACHE);
+                final AuthorizationServiceConfiguration serviceConfig =
+                        resolveServiceConfiguration(serviceConfiguration, issuer, builder);
+                flow.timings.mark(FlowTimings.CONFIGURATION_READY);
                 authorizeWithConfiguration(
                         serviceConfig,
                         appAuthConfiguration,
@@ -277,27 +466,27 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
                         useNonce,
                         usePKCE,
                         additionalParametersMap,
-                        androidTrustedWebActivity);
+                        androidTrustedWebActivity,
+                        flow);
             } catch (ActivityNotFoundException e) {
-                promise.reject("browser_not_found", e.getMessage());
+                rejectFlow(flow, "browser_not_found", e.getMessage(), null);
             } catch (Exception e) {
-                promise.reject("authentication_failed", e.getMessage());
+                rejectFlow(flow, "authentication_failed", e.getMessage(), null);
             }
         } else {
-            final Uri issuerUri = Uri.parse(issuer);
-            AuthorizationServiceConfiguration.fetchFromUrl(
-                    buildConfigurationUriFromIssuer(issuerUri),
+            recordConfigurationSource(flow.timings, issuer, FlowTimings.SOURCE_NETWORK);
+            fetchServiceConfiguration(
+                    issuer,
                     new AuthorizationServiceConfiguration.RetrieveConfigurationCallback() {
                         public void onFetchConfigurationCompleted(
                                 @Nullable AuthorizationServiceConfiguration fetchedConfiguration,
                                 @Nullable AuthorizationException ex) {
                             if (ex != null) {
-                                promise.reject("service_configuration_fetch_error", ex.getLocalizedMessage(), ex);
+                                rejectFlow(flow, "service_configuration_fetch_error", ex.getLocalizedMessage(), ex);
                                 return;
                             }
 
-                            setServiceConfiguration(issuer, fetchedConfiguration);
-
+                            flow.timings.mark(FlowTimings.CONFIGURATION_READY);
                             try {
                                 authorizeWithConfiguration(
                                         fetchedConfiguration,
@@ -308,11 +497,12 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
                                         useNonce,
                                         usePKCE,
                                         additionalParametersMap,
-                                        androidTrustedWebActivity);
+                                        androidTrustedWebActivity,
+                                        flow);
                             } catch (ActivityNotFoundException e) {
-                                promise.reject("browser_not_found", e.getMessage());
+                                rejectFlow(flow, "browser_not_found", e.getMessage(), null);
                             } catch (Exception e) {
-                                promise.reject("authentication_failed", e.getMessage());
+                                rejectFlow(flow, "authentication_failed", e.getMessage(), null);
                             }
                         }
                     },
@@ -336,7 +526,16 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
             final boolean dangerouslyAllowInsecureHttpRequests,
             final ReadableMap customHeaders,
             final ReadableArray androidAllowCustomBrowsers,
+            final String androidTokenStoreKey,
             final Promise promise) {
+        final List<String> refreshKey = createRefreshKey(issuer, serviceConfiguration, clientId, refreshToken, scopes,
+                androidTokenStoreKey);
+        if (!mPendingRefreshes.join(refreshKey, promise)) {
+            // an identical refresh is already in flight and will settle this promise as well
+            return;
+        }
+
+        final FlowTimings timings = new FlowTimings();
         this.parseHeaderMap(customHeaders);
         final ConnectionBuilder builder = createConnectionBuilder(dangerouslyAllowInsecureHttpRequests,
                 this.tokenRequestHeaders, connectionTimeoutMillis);
@@ -348,17 +547,16 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
             additionalParametersMap.put("client_secret", clientSecret);
         }
 
-        // store setting in private field for later use in onActivityResult handler
-        this.dangerouslyAllowInsecureHttpRequests = dangerouslyAllowInsecureHttpRequests;
-        this.additionalParametersMap = additionalParametersMap;
-
         // when serviceConfiguration is provided, we don't need to hit up the OpenID
         // well-known id endpoint
         if (serviceConfiguration != null || hasServiceConfiguration(issuer)) {
             try {
-                final AuthorizationServiceConfiguration serviceConfig = hasServiceConfiguration(issuer)
-                        ? getServiceConfiguration(issuer)
-                        : createAuthorizationServiceConfiguration(serviceConfiguration);
+                recordConfigurationSource(timings, issuer, serviceConfiguration != null
+                        ? FlowTimings.SOURCE_PROVIDED
+                        : FlowTimings.SOURCE_CACHE);
+                final AuthorizationServiceConfiguration serviceConfig =
+                        resolveServiceConfiguration(serviceConfiguration, issuer, builder);
+                timings.mark(FlowTimings.CONFIGURATION_READY);
                 refreshWithConfiguration(
                         serviceConfig,
                         appAuthConfiguration,
@@ -369,27 +567,29 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
                         additionalParametersMap,
                         clientAuthMethod,
                         clientSecret,
-                        promise);
+                        androidTokenStoreKey,
+                        getJwksUri(serviceConfiguration),
+                        refreshKey,
+                        timings);
             } catch (ActivityNotFoundException e) {
-                promise.reject("browser_not_found", e.getMessage());
+                rejectRefresh(refreshKey, "browser_not_found", e.getMessage(), null);
             } catch (Exception e) {
-                promise.reject("token_refresh_failed", e.getMessage());
+                rejectRefresh(refreshKey, "token_refresh_failed", e.getMessage(), null);
             }
         } else {
-            final Uri issuerUri = Uri.parse(issuer);
-            AuthorizationServiceConfiguration.fetchFromUrl(
-                    buildConfigurationUriFromIssuer(issuerUri),
+            recordConfigurationSource(timings, issuer, FlowTimings.SOURCE_NETWORK);
+            fetchServiceConfiguration(
+                    issuer,
                     new AuthorizationServiceConfiguration.RetrieveConfigurationCallback() {
                         public void onFetchConfigurationCompleted(
                                 @Nullable AuthorizationServiceConfiguration fetchedConfiguration,
                                 @Nullable AuthorizationException ex) {
                             if (ex != null) {
-                                promise.reject("service_configuration_fetch_error", ex.getLocalizedMessage(), ex);
+                                rejectRefresh(refreshKey, "service_configuration_fetch_error", ex.getLocalizedMessage(), ex);
                                 return;
                             }
 
-                            setServiceConfiguration(issuer, fetchedConfiguration);
-
+                            timings.mark(FlowTimings.CONFIGURATION_READY);
                             try {
                                 refreshWithConfiguration(
                                         fetchedConfiguration,
@@ -401,11 +601,14 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
                                         additionalParametersMap,
                                         clientAuthMethod,
                                         clientSecret,
-                                        promise);
+                                        androidTokenStoreKey,
+                                        null,
+                                        refreshKey,
+                                        timings);
                             } catch (ActivityNotFoundException e) {
-                                promise.reject("browser_not_found", e.getMessage());
+                                rejectRefresh(refreshKey, "browser_not_found", e.getMessage(), null);
                             } catch (Exception e) {
-                                promise.reject("token_refresh_failed", e.getMessage());
+                                rejectRefresh(refreshKey, "token_refresh_failed", e.getMessage(), null);
                             }
                         }
                     },
@@ -414,6 +617,106 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
 
     }
 
+    @ReactMethod
+    public void scheduleRefresh(
+            final String issuer,
+            final String redirectUrl,
+            final String clientId,
+            final String clientSecret,
+            final String refreshToken,
+            final ReadableArray scopes,
+            final ReadableMap additionalParameters,
+            final ReadableMap serviceConfiguration,
+            final Double connectionTimeoutMillis,
+            final String clientAuthMethod,
+            final boolean dangerouslyAllowInsecureHttpRequests,
+            final ReadableMap customHeaders,
+            final ReadableArray androidAllowCustomBrowsers,
+            final double accessTokenExpirationMillis,
+            final double skewMillis,
+            final String androidTokenStoreKey,
+            final Promise promise) {
+        TokenRefreshScheduler.RefreshTask task = new TokenRefreshScheduler.RefreshTask() {
+            @Override
+            public void refresh(String scheduledRefreshToken, Promise scheduledPromise) {
+                RNAppAuthModule.this.refresh(
+                        issuer,
+                        redirectUrl,
+                        clientId,
+                        clientSecret,
+                        scheduledRefreshToken,
+                        scopes,
+                        additionalParameters,
+                        serviceConfiguration,
+                        connectionTimeoutMillis,
+                        clientAuthMethod,
+                        dangerouslyAllowInsecureHttpRequests,
+                        customHeaders,
+                        androidAllowCustomBrowsers,
+                        androidTokenStoreKey,
+                        scheduledPromise);
+            }
+        };
+
+        long runAt = mRefreshScheduler.schedule(
+                createScheduleKey(issuer, serviceConfiguration, clientId),
+                task,
+                refreshToken,
+                (long) accessTokenExpirationMillis,
+                (long) skewMillis);
+        promise.resolve((double) runAt);
+    }
+
+    @ReactMethod
+    public void cancelScheduledRefresh(
+            final String issuer,
+            final String clientId,
+            final ReadableMap serviceConfiguration,
+            final Promise promise) {
+        mRefreshScheduler.cancel(createScheduleKey(issuer, serviceConfiguration, clientId));
+        promise.resolve(null);
+    }
+
+    /*
+     * Required by NativeEventEmitter, events are emitted regardless of listener count
+     */
+    @ReactMethod
+    public void addListener(String eventName) {
+
+    }
+
+    @ReactMethod
+    public void removeListeners(double count) {
+
+    }
+
+    /*
+     * Synchronous so apps can read their tokens during startup without waiting on the bridge
+     */
+    @ReactMethod(isBlockingSynchronousMethod = true)
+    public WritableMap getStoredTokens(final String key) {
+        return mTokenStore.get(key);
+    }
+
+    @ReactMethod
+    public void clearStoredTokens(final String key, final Promise promise) {
+        mTokenStore.remove(key);
+        promise.resolve(null);
+    }
+
+    /*
+     * Snapshot of the metrics aggregated in memory, optionally starting a new aggregation period
+     */
+    @ReactMethod
+    public void getAuthMetrics(final boolean reset, final Promise promise) {
+        InMemoryAuthMetrics metrics = AuthMetrics.getInMemory();
+        WritableMap map = metrics.toMap();
+        if (reset) {
+            metrics.reset();
+        }
+        promise.resolve(map);
+    }
+
     @ReactMethod
     public void logout(
             String issuer,
@@ -429,50 +732,70 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
                 dangerouslyAllowInsecureHttpRequests, androidAllowCustomBrowsers);
         final HashMap<String, String> additionalParametersMap = MapUtil.readableMapToHashMap(additionalParameters);
 
-        this.promise = promise;
+        rejectFlows(mFlows.getExpired(), "Flow expired before a result was received");
+        final AuthFlowRegistry.Flow flow;
+        try {
+            flow = mFlows.join(
+                    AuthFlowRegistry.TYPE_END_SESSION,
+                    Arrays.<Object>asList("logout", issuer, idTokenHint, postLogoutRedirectUri,
+                            toHashMap(serviceConfiguration), new HashMap<>(additionalParametersMap),
+                            dangerouslyAllowInsecureHttpRequests, toArrayList(androidAllowCustomBrowsers)),
+                    additionalParametersMap.get("state"),
+                    promise);
+        } catch (IllegalStateException e) {
+            rejectPromise(promise, "end_session_failed", e.getMessage(), null);
+            return;
+        }
+        if (flow == null) {
+            return;
+        }
 
         if (serviceConfiguration != null || hasServiceConfiguration(issuer)) {
             try {
-                final AuthorizationServiceConfiguration serviceConfig = hasServiceConfiguration(issuer)
-                        ? getServiceConfiguration(issuer)
-                        : createAuthorizationServiceConfiguration(serviceConfiguration);
+                recordConfigurationSource(flow.timings, issuer, serviceConfiguration != null
+                        ? FlowTimings.SOURCE_PROVIDED
+                        : FlowTimings.SOURCE_CACHE);
+                final AuthorizationServiceConfiguration serviceConfig =
+                        resolveServiceConfiguration(serviceConfiguration, issuer, builder);
+                flow.timings.mark(FlowTimings.CONFIGURATION_READY);
                 endSessionWithConfiguration(
                         serviceConfig,
                         appAuthConfiguration,
                         idTokenHint,
                         postLogoutRedirectUri,
-                        additionalParametersMap);
+                        additionalParametersMap,
+                        flow);
             } catch (ActivityNotFoundException e) {
-                promise.reject("browser_not_found", e.getMessage());
+                rejectFlow(flow, "browser_not_found", e.getMessage(), null);
             } catch (Exception e) {
-                promise.reject("end_session_failed", e.getMessage());
+                rejectFlow(flow, "end_session_failed", e.getMessage(), null);
             }
         } else {
-            final Uri issuerUri = Uri.parse(issuer);
-            AuthorizationServiceConfiguration.fetchFromUrl(
-                    buildConfigurationUriFromIssuer(issuerUri),
+            recordConfigurationSource(flow.timings, issuer, FlowTimings.SOURCE_NETWORK);
+            fetchServiceConfiguration(
+                    issuer,
                     new AuthorizationServiceConfiguration.RetrieveConfigurationCallback() {
                         public void onFetchConfigurationCompleted(
                                 @Nullable AuthorizationServiceConfiguration fetchedConfiguration,
                                 @Nullable AuthorizationException ex) {
                             if (ex != null) {
-                                promise.reject("service_configuration_fetch_error", ex.getLocalizedMessage(), ex);
+                                rejectFlow(flow, "service_configuration_fetch_error", ex.getLocalizedMessage(), ex);
                                 return;
                             }
 
-                            setServiceConfiguration(issuer, fetchedConfiguration);
-
+                            flow.timings.mark(FlowTimings.CONFIGURATION_READY);
                             try {
                                 endSessionWithConfiguration(
                                         fetchedConfiguration,
                                         appAuthConfiguration,
                                         idTokenHint,
                                         postLogoutRedirectUri,
-                                        additionalParametersMap);
+                                        additionalParametersMap,
+                                        flow);
                             } catch (ActivityNotFoundException e) {
-                                promise.reject("browser_not_found", e.getMessage());
+                                rejectFlow(flow, "browser_not_found", e.getMessage(), null);
                             } catch (Exception e) {
-                                promise.reject("end_session_failed", e.getMessage());
+                                rejectFlow(flow, "end_session_failed", e.getMessage(), null);
                             }
                         }
                     },
@@ -485,111 +808,133 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
      */
     @Override
     public void onActivityResult(Activity activity, int requestCode, int resultCode, Intent data) {
-        try {
-        if (requestCode == 52) {
-            if (data == null) {
-                if (promise != null) {
-                    promise.reject("authentication_error", "Data intent is null" );
-                }
-                return;
-            }
-
-            final AuthorizationResponse response = AuthorizationResponse.fromIntent(data);
-            AuthorizationException ex = AuthorizationException.fromIntent(data);
-            if (ex != null) {
-                if (promise != null) {
-                    handleAuthorizationException("authentication_error", ex, promise);
-                }
-                return;
-            }
-
-            if (this.skipCodeExchange != null && this.skipCodeExchange) {
-                WritableMap map;
-                if (this.usePKCE != null && this.usePKCE && this.codeVerifier != null) {
-                    map = TokenResponseFactory.authorizationCodeResponseToMap(response, this.codeVerifier);
-                } else {
-                    map = TokenResponseFactory.authorizationResponseToMap(response);
-                }
+        final AuthFlowRegistry.Flow flow = mFlows.getByRequestCode(requestCode);
+        if (flow == null) {
+            return;
+        }
+        flow.timings.mark(FlowTimings.REDIRECT_RECEIVED);
 
-                if (promise != null) {
-                    promise.resolve(map);
-                }
-                return;
+        try {
+            if (flow.type == AuthFlowRegistry.TYPE_AUTHORIZE) {
+                onAuthorizationResult(flow, data);
+            } else {
+                onEndSessionResult(flow, data);
             }
+        } catch (Exception e) {
+            rejectFlow(flow, "run_time_exception", e.getMessage(), null);
+        }
+    }
 
+    private void onAuthorizationResult(final AuthFlowRegistry.Flow flow, @Nullable Intent data) {
+        if (data == null) {
+            rejectFlow(flow, "authentication_error", "Data intent is null", null);
+            return;
+        }
 
-            final Promise authorizePromise = this.promise;
-            final AppAuthConfiguration configuration = createAppAuthConfiguration(
-                    createConnectionBuilder(this.dangerouslyAllowInsecureHttpRequests, this.tokenRequestHeaders),
-                    this.dangerouslyAllowInsecureHttpRequests,
-                    null
-            );
-
-            AuthorizationService authService = new AuthorizationService(this.reactContext, configuration);
-
-            TokenRequest tokenRequest;
-            if(this.additionalParametersMap == null) {
-                tokenRequest = response.createTokenExchangeRequest();
-            } else {
-                tokenRequest = response.createTokenExchangeRequest(this.additionalParametersMap);
-            }
+        final AuthorizationResponse response = AuthorizationResponse.fromIntent(data);
+        AuthorizationException ex = AuthorizationException.fromIntent(data);
+        if (ex != null) {
+            rejectFlow(flow, "authentication_error", ex);
+            return;
+        }
 
-            AuthorizationService.TokenResponseCallback tokenResponseCallback = new AuthorizationService.TokenResponseCallback() {
+        if (response != null && !flow.state.equals(response.state)) {
+            rejectFlow(flow, "authentication_error", "State mismatch", null);
+            return;
+        }
 
+        if (flow.skipCodeExchange) {
+            CONVERSION_EXECUTOR.execute(new Runnable() {
                 @Override
-                public void onTokenRequestCompleted(
-                        TokenResponse resp, AuthorizationException ex) {
-                    if (resp != null) {
-                        WritableMap map = TokenResponseFactory.tokenResponseToMap(resp, response);
-                        if (authorizePromise != null) {
-                            authorizePromise.resolve(map);
-                        }
+                public void run() {
+                    WritableMap map;
+                    if (flow.usePKCE && flow.codeVerifier != null) {
+                        map = TokenResponseFactory.authorizationCodeResponseToMap(response, flow.codeVerifier);
                     } else {
-                        if (promise != null) {
-                            handleAuthorizationException("token_exchange_failed", ex, promise);
-                        }
+                        map = TokenResponseFactory.authorizationResponseToMap(response);
                     }
+
+                    resolveFlow(flow, map);
                 }
-            };
+            });
+            return;
+        }
 
-            if (this.clientSecret != null) {
-                ClientAuthentication clientAuth = this.getClientAuthentication(this.clientSecret, this.clientAuthMethod);
-                authService.performTokenRequest(tokenRequest, clientAuth, tokenResponseCallback);
+        final AppAuthConfiguration configuration = createAppAuthConfiguration(
+                createConnectionBuilder(flow.dangerouslyAllowInsecureHttpRequests, flow.tokenRequestHeaders),
+                flow.dangerouslyAllowInsecureHttpRequests,
+                null
+        );
 
-            } else {
-                authService.performTokenRequest(tokenRequest, tokenResponseCallback);
-            }
+        TokenRequest tokenRequest;
+        if (flow.additionalParametersMap == null) {
+            tokenRequest = response.createTokenExchangeRequest();
+        } else {
+            tokenRequest = response.createTokenExchangeRequest(flow.additionalParametersMap);
+        }
 
-        } // close if
+        AuthorizationService.TokenResponseCallback tokenResponseCallback = new AuthorizationService.TokenResponseCallback() {
 
-        if (requestCode == 53) {
-            if (data == null) {
-                if (promise != null) {
-                    promise.reject("end_session_failed", "Data intent is null" );
-                }
-                return;
-            }
-            EndSessionResponse response = EndSessionResponse.fromIntent(data);
-            AuthorizationException ex = AuthorizationException.fromIntent(data);
-            if (ex != null) {
-                if (promise != null) {
-                    handleAuthorizationException("end_session_failed", ex, promise);
+            @Override
+            public void onTokenRequestCompleted(
+                    TokenResponse resp, AuthorizationException ex) {
+                flow.timings.mark(FlowTimings.TOKEN_REQUEST_COMPLETED);
+                if (resp != null) {
+                    final TokenResponse tokenResponse = resp;
+                    verifyIdToken(tokenResponse, configuration, flow.jwksUri, new IdTokenVerifier.Callback() {
+                        @Override
+                        public void onVerificationCompleted(@Nullable Exception verificationError) {
+                            if (verificationError != null) {
+                                rejectFlow(flow, "id_token_verification_failed", verificationError.getMessage(),
+                                        verificationError);
+                                return;
+                            }
+
+                            CONVERSION_EXECUTOR.execute(new Runnable() {
+                                @Override
+                                public void run() {
+                                    WritableMap map = TokenResponseFactory.tokenResponseToMap(tokenResponse, response);
+                                    if (flow.tokenStoreKey != null) {
+                                        mTokenStore.put(flow.tokenStoreKey, map);
+                                    }
+                                    resolveFlow(flow, map);
+                                }
+                            });
+                        }
+                    });
+                } else {
+                    rejectFlow(flow, "token_exchange_failed", ex);
                 }
-                return;
-            }
-            final Promise endSessionPromise = this.promise;
-            if (endSessionPromise != null) {
-                WritableMap map = EndSessionResponseFactory.endSessionResponseToMap(response);
-                endSessionPromise.resolve(map);
             }
+        };
+
+        ClientAuthentication clientAuth = flow.clientSecret != null
+                ? this.getClientAuthentication(flow.clientSecret, flow.clientAuthMethod)
+                : NoClientAuthentication.INSTANCE;
+        // an authorization code can only be used once, so the exchange is not repeatable
+        flow.timings.mark(FlowTimings.TOKEN_REQUEST_STARTED);
+        performTokenRequest(configuration, tokenRequest, clientAuth, false, tokenResponseCallback);
+    }
+
+    private void onEndSessionResult(final AuthFlowRegistry.Flow flow, @Nullable Intent data) {
+        if (data == null) {
+            rejectFlow(flow, "end_session_failed", "Data intent is null", null);
+            return;
         }
-    } catch (Exception e) {
-        if(promise != null) {
-            promise.reject("run_time_exception", e.getMessage());
-        } else {
-            throw e;
+
+        final EndSessionResponse response = EndSessionResponse.fromIntent(data);
+        AuthorizationException ex = AuthorizationException.fromIntent(data);
+        if (ex != null) {
+            rejectFlow(flow, "end_session_failed", ex);
+            return;
         }
-    }
+
+        CONVERSION_EXECUTOR.execute(new Runnable() {
+            @Override
+            public void run() {
+                resolveFlow(flow, EndSessionResponseFactory.endSessionResponseToMap(response));
+            }
+        });
     }
 
     /*
@@ -605,10 +950,6 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
             final String tokenEndpointAuthMethod,
             final Map<String, String> additionalParametersMap,
             final Promise promise) {
-        final Context context = this.reactContext;
-
-        AuthorizationService authService = new AuthorizationService(context, appAuthConfiguration);
-
         RegistrationRequest.Builder registrationRequestBuilder = new RegistrationRequest.Builder(
                 serviceConfiguration,
                 arrayToUriList(redirectUris))
@@ -632,20 +973,32 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
 
         RegistrationRequest registrationRequest = registrationRequestBuilder.build();
 
+        final AuthorizationService authService = mAuthorizationServices.acquire(appAuthConfiguration);
         AuthorizationService.RegistrationResponseCallback registrationResponseCallback = new AuthorizationService.RegistrationResponseCallback() {
             @Override
-            public void onRegistrationRequestCompleted(@Nullable RegistrationResponse response,
+            public void onRegistrationRequestCompleted(@Nullable final RegistrationResponse response,
                     @Nullable AuthorizationException ex) {
+                mAuthorizationServices.release(authService);
                 if (response != null) {
-                    WritableMap map = RegistrationResponseFactory.registrationResponseToMap(response);
-                    promise.resolve(map);
+                    CONVERSION_EXECUTOR.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            promise.resolve(RegistrationResponseFactory.registrationResponseToMap(response));
+                        }
+                    });
                 } else {
                     handleAuthorizationException("registration_failed", ex, promise);
                 }
             }
         };
 
-        authService.performRegistrationRequest(registrationRequest, registrationResponseCallback);
+        try {
+            AuthorizationRequestPerformer.performRegistrationRequest(authService, registrationRequest,
+                    appAuthConfiguration, registrationResponseCallback);
+        } catch (RuntimeException e) {
+            mAuthorizationServices.release(authService);
+            throw e;
+        }
     }
 
     /*
@@ -660,7 +1013,8 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
             final Boolean useNonce,
             final Boolean usePKCE,
             final Map<String, String> additionalParametersMap,
-            final Boolean androidTrustedWebActivity) {
+            final Boolean androidTrustedWebActivity,
+            final AuthFlowRegistry.Flow flow) {
 
         String scopesString = null;
 
@@ -668,7 +1022,6 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
             scopesString = this.arrayToString(scopes);
         }
 
-        final Context context = this.reactContext;
         final Activity currentActivity = getCurrentActivity();
 
         AuthorizationRequest.Builder authRequestBuilder = new AuthorizationRequest.Builder(
@@ -695,10 +1048,8 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
                 authRequestBuilder.setPrompt(additionalParametersMap.get("prompt"));
                 additionalParametersMap.remove("prompt");
             }
-            if (additionalParametersMap.containsKey("state")) {
-                authRequestBuilder.setState(additionalParametersMap.get("state"));
-                additionalParametersMap.remove("state");
-            }
+            // the state is taken from the flow, which uses this one when given
+            additionalParametersMap.remove("state");
 
             if (additionalParametersMap.containsKey("nonce")) {
                 authRequestBuilder.setNonce(additionalParametersMap.get("nonce"));
@@ -714,11 +1065,13 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
             authRequestBuilder.setAdditionalParameters(additionalParametersMap);
         }
 
+        authRequestBuilder.setState(flow.state);
+
         if (!usePKCE) {
             authRequestBuilder.setCodeVerifier(null);
         } else {
-            this.codeVerifier = CodeVerifierUtil.generateRandomCodeVerifier();
-            authRequestBuilder.setCodeVerifier(this.codeVerifier);
+            flow.codeVerifier = CodeVerifierUtil.generateRandomCodeVerifier();
+            authRequestBuilder.setCodeVerifier(flow.codeVerifier);
         }
 
         if (!useNonce) {
@@ -728,24 +1081,34 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
         AuthorizationRequest authRequest = authRequestBuilder.build();
 
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.LOLLIPOP) {
-            AuthorizationService authService = new AuthorizationService(context, appAuthConfiguration);
+            AuthorizationService authService = mAuthorizationServices.acquire(appAuthConfiguration);
+            Intent authIntent;
+            try {
+                CustomTabsIntent.Builder intentBuilder = authService.createCustomTabsIntentBuilder();
+                CustomTabsIntent customTabsIntent = intentBuilder.build();
 
-            CustomTabsIntent.Builder intentBuilder = authService.createCustomTabsIntentBuilder();
-            CustomTabsIntent customTabsIntent = intentBuilder.build();
+                if (androidTrustedWebActivity) {
+                    customTabsIntent.intent.putExtra(TrustedWebUtils.EXTRA_LAUNCH_AS_TRUSTED_WEB_ACTIVITY, true);
+                }
 
-            if (androidTrustedWebActivity) {
-                customTabsIntent.intent.putExtra(TrustedWebUtils.EXTRA_LAUNCH_AS_TRUSTED_WEB_ACTIVITY, true);
+                authIntent = authService.getAuthorizationRequestIntent(authRequest, customTabsIntent);
+            } finally {
+                mAuthorizationServices.release(authService);
             }
 
-            Intent authIntent = authService.getAuthorizationRequestIntent(authRequest, customTabsIntent);
-
-            currentActivity.startActivityForResult(authIntent, 52);
+            currentActivity.startActivityForResult(authIntent, flow.requestCode);
         } else {
-            AuthorizationService authService = new AuthorizationService(currentActivity, appAuthConfiguration);
-            PendingIntent pendingIntent = currentActivity.createPendingResult(52, new Intent(), 0);
+            // the request is started from the service's context, so it has to be the activity
+            AuthorizationService authService = mAuthorizationServices.acquire(currentActivity, appAuthConfiguration);
+            try {
+                PendingIntent pendingIntent = currentActivity.createPendingResult(flow.requestCode, new Intent(), 0);
 
-            authService.performAuthorizationRequest(authRequest, pendingIntent);
+                authService.performAuthorizationRequest(authRequest, pendingIntent);
+            } finally {
+                mAuthorizationServices.release(authService);
+            }
         }
+        flow.timings.mark(FlowTimings.BROWSER_LAUNCHED);
     }
 
     /*
@@ -761,7 +1124,10 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
             final Map<String, String> additionalParametersMap,
             final String clientAuthMethod,
             final String clientSecret,
-            final Promise promise) {
+            @Nullable final String tokenStoreKey,
+            @Nullable final Uri jwksUri,
+            final List<String> refreshKey,
+            final FlowTimings timings) {
 
         String scopesString = null;
 
@@ -769,8 +1135,6 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
             scopesString = this.arrayToString(scopes);
         }
 
-        final Context context = this.reactContext;
-
         TokenRequest.Builder tokenRequestBuilder = new TokenRequest.Builder(
                 serviceConfiguration,
                 clientId)
@@ -787,27 +1151,188 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
 
         TokenRequest tokenRequest = tokenRequestBuilder.build();
 
-        AuthorizationService authService = new AuthorizationService(context, appAuthConfiguration);
-
         AuthorizationService.TokenResponseCallback tokenResponseCallback = new AuthorizationService.TokenResponseCallback() {
             @Override
-            public void onTokenRequestCompleted(@Nullable TokenResponse response, @Nullable AuthorizationException ex) {
-                if (response != null) {
-                    WritableMap map = TokenResponseFactory.tokenResponseToMap(response);
-                    promise.resolve(map);
-                } else {
-                    handleAuthorizationException("token_refresh_failed", ex, promise);
+            public void onTokenRequestCompleted(@Nullable final TokenResponse response, @Nullable AuthorizationException ex) {
+                timings.mark(FlowTimings.TOKEN_REQUEST_COMPLETED);
+                if (response == null) {
+                    for (Promise promise : mPendingRefreshes.complete(refreshKey)) {
+                        handleAuthorizationException("token_refresh_failed", ex, promise);
+                    }
+                    return;
                 }
+
+                verifyIdToken(response, appAuthConfiguration, jwksUri, new IdTokenVerifier.Callback() {
+                    @Override
+                    public void onVerificationCompleted(@Nullable Exception verificationError) {
+                        if (verificationError != null) {
+                            rejectRefresh(refreshKey, "id_token_verification_failed", verificationError.getMessage(),
+                                    verificationError);
+                            return;
+                        }
+
+                        mRefreshScheduler.onTokensRefreshed(
+                                Arrays.asList(refreshKey.get(0), refreshKey.get(1)),
+                                response.refreshToken,
+                                response.accessTokenExpirationTime);
+
+                        CONVERSION_EXECUTOR.execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                WritableMap map = TokenResponseFactory.tokenResponseToMap(response);
+                                if (tokenStoreKey != null) {
+                                    mTokenStore.put(tokenStoreKey, map);
+                                }
+                                attachTimings(map, timings);
+
+                                // identical refreshes made during the conversion still join this one
+                                List<Promise> promises = mPendingRefreshes.complete(refreshKey);
+                                // a map can only be sent over the bridge once, so every caller but the first gets a copy
+                                for (int i = 1; i < promises.size(); i++) {
+                                    promises.get(i).resolve(map.copy());
+                                }
+                                if (!promises.isEmpty()) {
+                                    promises.get(0).resolve(map);
+                                }
+                            }
+                        });
+                    }
+                });
             }
         };
 
-        if (clientSecret != null) {
-            ClientAuthentication clientAuth = this.getClientAuthentication(clientSecret, clientAuthMethod);
-            authService.performTokenRequest(tokenRequest, clientAuth, tokenResponseCallback);
+        ClientAuthentication clientAuth = clientSecret != null
+                ? this.getClientAuthentication(clientSecret, clientAuthMethod)
+                : NoClientAuthentication.INSTANCE;
+        timings.mark(FlowTimings.TOKEN_REQUEST_STARTED);
+        performTokenRequest(appAuthConfiguration, tokenRequest, clientAuth, retryPolicy.idempotentRefresh,
+                tokenResponseCallback);
+    }
 
-        } else {
-            authService.performTokenRequest(tokenRequest, tokenResponseCallback);
+    /*
+     * Perform a token request unless the circuit breaker has cut off its token endpoint
+     */
+    private void performTokenRequest(
+            AppAuthConfiguration appAuthConfiguration,
+            TokenRequest tokenRequest,
+            ClientAuthentication clientAuth,
+            boolean repeatable,
+            final AuthorizationService.TokenResponseCallback callback) {
+        final CircuitBreaker breaker = circuitBreaker;
+        if (breaker == null) {
+            performTokenRequestWithRetries(appAuthConfiguration, tokenRequest, clientAuth, repeatable, 1, callback);
+            return;
+        }
+
+        final String endpoint = tokenRequest.configuration.tokenEndpoint.toString();
+        if (!breaker.tryAcquire(endpoint)) {
+            callback.onTokenRequestCompleted(null, breaker.createOpenException(endpoint));
+            return;
+        }
+
+        performTokenRequestWithRetries(appAuthConfiguration, tokenRequest, clientAuth, repeatable, 1,
+                new AuthorizationService.TokenResponseCallback() {
+                    @Override
+                    public void onTokenRequestCompleted(@Nullable TokenResponse response,
+                            @Nullable AuthorizationException ex) {
+                        breaker.onRequestCompleted(endpoint, response == null && CircuitBreaker.isOutage(ex));
+                        callback.onTokenRequestCompleted(response, ex);
+                    }
+                });
+    }
+
+    /*
+     * Perform a token request, retrying transient failures as allowed by the retry policy.
+     * Retries are scheduled on the main thread, where responses are delivered
+     */
+    private void performTokenRequestWithRetries(
+            final AppAuthConfiguration appAuthConfiguration,
+            final TokenRequest tokenRequest,
+            final ClientAuthentication clientAuth,
+            final boolean repeatable,
+            final int attempt,
+            final AuthorizationService.TokenResponseCallback callback) {
+        final RetryPolicy policy = retryPolicy;
+        final long startedAt = SystemClock.elapsedRealtime();
+        final AuthorizationService authService = mAuthorizationServices.acquire(appAuthConfiguration);
+        AuthorizationService.TokenResponseCallback attemptCallback = new AuthorizationService.TokenResponseCallback() {
+            @Override
+            public void onTokenRequestCompleted(@Nullable TokenResponse response,
+                    @Nullable final AuthorizationException ex) {
+                mAuthorizationServices.release(authService);
+                final String issuer = getMetricsIssuer(tokenRequest);
+                AuthMetrics.onTokenRequestCompleted(issuer, tokenRequest.grantType,
+                        SystemClock.elapsedRealtime() - startedAt,
+                        response == null && ex != null ? getMetricsErrorCode(ex) : null);
+
+                if (response != null || !policy.canRetry(attempt)
+                        || !RetryPolicy.isRetryable(ex, repeatable)) {
+                    callback.onTokenRequestCompleted(response, ex);
+                    return;
+                }
+
+                AuthMetrics.onTokenRequestRetried(issuer, attempt + 1);
+                mainHandler.postDelayed(new Runnable() {
+                    @Override
+                    public void run() {
+                        performTokenRequestWithRetries(appAuthConfiguration, tokenRequest, clientAuth,
+                                repeatable, attempt + 1, callback);
+                    }
+                }, policy.getDelayMillis(attempt));
+            }
+        };
+
+        try {
+            AuthorizationRequestPerformer.performTokenRequest(authService, tokenRequest, clientAuth,
+                    appAuthConfiguration, attemptCallback);
+        } catch (RuntimeException e) {
+            // the request was never sent. Reporting it through the callback, rather than throwing,
+            // settles the caller's promise, also for a retry running on the main thread, and lets
+            // the circuit breaker count it instead of keeping its probe slot taken
+            mAuthorizationServices.release(authService);
+            callback.onTokenRequestCompleted(null,
+                    AuthorizationException.fromTemplate(AuthorizationException.GeneralErrors.NETWORK_ERROR, e));
+        }
+    }
+
+    private RetryPolicy createRetryPolicy(@Nullable ReadableMap retry) {
+        if (retry == null) {
+            return RetryPolicy.NONE;
         }
+
+        // an omitted delay is defaulted so that it stays consistent with the one that was passed
+        long maxDelayMillis = retry.hasKey("maxDelayMillis")
+                ? (long) retry.getDouble("maxDelayMillis")
+                : -1;
+        long initialDelayMillis = retry.hasKey("initialDelayMillis")
+                ? (long) retry.getDouble("initialDelayMillis")
+                : maxDelayMillis >= 0
+                        ? Math.min(RetryPolicy.DEFAULT_INITIAL_DELAY_MS, maxDelayMillis)
+                        : RetryPolicy.DEFAULT_INITIAL_DELAY_MS;
+        if (maxDelayMillis < 0) {
+            maxDelayMillis = Math.max(RetryPolicy.DEFAULT_MAX_DELAY_MS, initialDelayMillis);
+        }
+
+        return new RetryPolicy(
+                retry.hasKey("maxAttempts") ? retry.getInt("maxAttempts") : RetryPolicy.DEFAULT_MAX_ATTEMPTS,
+                initialDelayMillis,
+                maxDelayMillis,
+                retry.hasKey("idempotentRefresh") && retry.getBoolean("idempotentRefresh"));
+    }
+
+    @Nullable
+    private CircuitBreaker createCircuitBreaker(@Nullable ReadableMap options) {
+        if (options == null) {
+            return null;
+        }
+
+        return new CircuitBreaker(
+                options.hasKey("failureThreshold")
+                        ? options.getInt("failureThreshold")
+                        : CircuitBreaker.DEFAULT_FAILURE_THRESHOLD,
+                options.hasKey("resetTimeoutMillis")
+                        ? (long) options.getDouble("resetTimeoutMillis")
+                        : CircuitBreaker.DEFAULT_RESET_TIMEOUT_MS);
     }
 
     /*
@@ -818,8 +1343,8 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
             final AppAuthConfiguration appAuthConfiguration,
             final String idTokenHint,
             final String postLogoutRedirectUri,
-            final Map<String, String> additionalParametersMap) {
-        final Context context = this.reactContext;
+            final Map<String, String> additionalParametersMap,
+            final AuthFlowRegistry.Flow flow) {
         final Activity currentActivity = getCurrentActivity();
 
         EndSessionRequest.Builder endSessionRequestBuilder = new EndSessionRequest.Builder(serviceConfiguration)
@@ -827,26 +1352,36 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
                 .setPostLogoutRedirectUri(Uri.parse(postLogoutRedirectUri));
 
         if (additionalParametersMap != null) {
-            if (additionalParametersMap.containsKey("state")) {
-                endSessionRequestBuilder.setState(additionalParametersMap.get("state"));
-                additionalParametersMap.remove("state");
-            }
+            // the state is taken from the flow, which uses this one when given
+            additionalParametersMap.remove("state");
             endSessionRequestBuilder.setAdditionalParameters(additionalParametersMap);
         }
+        endSessionRequestBuilder.setState(flow.state);
 
         EndSessionRequest endSessionRequest = endSessionRequestBuilder.build();
 
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.LOLLIPOP) {
-            AuthorizationService authService = new AuthorizationService(context, appAuthConfiguration);
-            Intent endSessionIntent = authService.getEndSessionRequestIntent(endSessionRequest);
+            AuthorizationService authService = mAuthorizationServices.acquire(appAuthConfiguration);
+            Intent endSessionIntent;
+            try {
+                endSessionIntent = authService.getEndSessionRequestIntent(endSessionRequest);
+            } finally {
+                mAuthorizationServices.release(authService);
+            }
 
-            currentActivity.startActivityForResult(endSessionIntent, 53);
+            currentActivity.startActivityForResult(endSessionIntent, flow.requestCode);
         } else {
-            AuthorizationService authService = new AuthorizationService(currentActivity, appAuthConfiguration);
-            PendingIntent pendingIntent = currentActivity.createPendingResult(53, new Intent(), 0);
+            // the request is started from the service's context, so it has to be the activity
+            AuthorizationService authService = mAuthorizationServices.acquire(currentActivity, appAuthConfiguration);
+            try {
+                PendingIntent pendingIntent = currentActivity.createPendingResult(flow.requestCode, new Intent(), 0);
 
-            authService.performEndSessionRequest(endSessionRequest, pendingIntent);
+                authService.performEndSessionRequest(endSessionRequest, pendingIntent);
+            } finally {
+                mAuthorizationServices.release(authService);
+            }
         }
+        flow.timings.mark(FlowTimings.BROWSER_LAUNCHED);
     }
 
     private void parseHeaderMap(ReadableMap headerMap) {
@@ -910,17 +1445,30 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
     }
 
     /*
-     * Create an App Auth configuration using the provided connection builder
+     * Create an App Auth configuration using the provided connection builder. Equal settings
+     * return the same configuration, so its pooled AuthorizationService can be reused
      */
     private AppAuthConfiguration createAppAuthConfiguration(
             ConnectionBuilder connectionBuilder,
             Boolean skipIssuerHttpsCheck,
             ReadableArray androidAllowCustomBrowsers) {
-        return new AppAuthConfiguration.Builder()
-                .setBrowserMatcher(getBrowserAllowList(androidAllowCustomBrowsers))
-                .setConnectionBuilder(connectionBuilder)
-                .setSkipIssuerHttpsCheck(skipIssuerHttpsCheck)
-                .build();
+        List<Object> key = Arrays.<Object>asList(
+                connectionBuilder,
+                skipIssuerHttpsCheck,
+                androidAllowCustomBrowsers != null ? androidAllowCustomBrowsers.toArrayList() : null);
+
+        synchronized (mAppAuthConfigurations) {
+            AppAuthConfiguration configuration = mAppAuthConfigurations.get(key);
+            if (configuration == null) {
+                configuration = new AppAuthConfiguration.Builder()
+                        .setBrowserMatcher(getBrowserAllowList(androidAllowCustomBrowsers))
+                        .setConnectionBuilder(connectionBuilder)
+                        .setSkipIssuerHttpsCheck(skipIssuerHttpsCheck)
+                        .build();
+                mAppAuthConfigurations.put(key, configuration);
+            }
+            return configuration;
+        }
     }
 
     /*
@@ -928,15 +1476,8 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
      */
     private ConnectionBuilder createConnectionBuilder(boolean allowInsecureConnections, Map<String, String> headers,
             Double connectionTimeoutMillis) {
-        ConnectionBuilder proxiedBuilder;
-
-        if (allowInsecureConnections) {
-            proxiedBuilder = UnsafeConnectionBuilder.INSTANCE;
-        } else {
-            proxiedBuilder = DefaultConnectionBuilder.INSTANCE;
-        }
-
-        CustomConnectionBuilder customConnection = new CustomConnectionBuilder(proxiedBuilder);
+        CustomConnectionBuilder customConnection =
+                new CustomConnectionBuilder(getProxiedConnectionBuilder(allowInsecureConnections));
 
         if (headers != null) {
             customConnection.setHeaders(headers);
@@ -948,15 +1489,8 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
     }
 
     private ConnectionBuilder createConnectionBuilder(boolean allowInsecureConnections, Map<String, String> headers) {
-        ConnectionBuilder proxiedBuilder;
-
-        if (allowInsecureConnections) {
-            proxiedBuilder = UnsafeConnectionBuilder.INSTANCE;
-        } else {
-            proxiedBuilder = DefaultConnectionBuilder.INSTANCE;
-        }
-
-        CustomConnectionBuilder customConnection = new CustomConnectionBuilder(proxiedBuilder);
+        CustomConnectionBuilder customConnection =
+                new CustomConnectionBuilder(getProxiedConnectionBuilder(allowInsecureConnections));
 
         if (headers != null) {
             customConnection.setHeaders(headers);
@@ -965,6 +1499,30 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
         return customConnection;
     }
 
+    private ConnectionBuilder getProxiedConnectionBuilder(boolean allowInsecureConnections) {
+        if (HTTP_CLIENT_OKHTTP.equals(httpClient)) {
+            return allowInsecureConnections
+                    ? OkHttpConnectionBuilder.UNSAFE_INSTANCE
+                    : OkHttpConnectionBuilder.INSTANCE;
+        }
+
+        return allowInsecureConnections
+                ? UnsafeConnectionBuilder.INSTANCE
+                : DefaultConnectionBuilder.INSTANCE;
+    }
+
+    /*
+     * Each attempt of the discovery request may spend the connection timeout on both connecting
+     * and reading, and retries wait up to the backoff of the retry policy in between
+     */
+    private long getPrefetchTimeoutMillis(@Nullable Double connectionTimeoutMillis) {
+        long timeout = connectionTimeoutMillis != null
+                ? connectionTimeoutMillis.longValue()
+                : TimeUnit.SECONDS.toMillis(15);
+        RetryPolicy policy = retryPolicy;
+        return policy.maxAttempts * 2 * timeout + policy.getMaxTotalDelayMillis();
+    }
+
     /*
      * Replicated private method from AuthorizationServiceConfiguration
      */
@@ -1023,24 +1581,261 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
         CustomTabsClient.bindCustomTabsService(context, CUSTOM_TAB_PACKAGE_NAME, connection);
     }
 
+    /*
+     * Return the service configuration passed in by the app, or else the cached one of the issuer.
+     * A passed in configuration always wins, since a persisted discovery document may be left over
+     * from an older setup of the app
+     */
+    @Nullable
+    AuthorizationServiceConfiguration resolveServiceConfiguration(@Nullable ReadableMap serviceConfiguration,
+            @Nullable String issuer, ConnectionBuilder builder) throws Exception {
+        if (serviceConfiguration != null) {
+            return createAuthorizationServiceConfiguration(serviceConfiguration);
+        }
+        return getServiceConfiguration(issuer, builder);
+    }
+
     private boolean hasServiceConfiguration(@Nullable String issuer) {
-        return issuer != null && mServiceConfigurations.containsKey(issuer);
+        return issuer != null && mServiceConfigurations.contains(issuer);
     }
 
-    private AuthorizationServiceConfiguration getServiceConfiguration(@Nullable String issuer) {
-        if (issuer == null) {
+    /*
+     * Return the cached configuration for an issuer. A stale entry is still returned, and is
+     * refreshed in the background so the next call gets an up to date discovery document
+     */
+    private AuthorizationServiceConfiguration getServiceConfiguration(@Nullable String issuer,
+            ConnectionBuilder builder) {
+        ServiceConfigurationCache.Entry entry = mServiceConfigurations.get(issuer);
+        if (entry == null) {
             return null;
-        } else {
-            return mServiceConfigurations.get(issuer);
         }
+
+        if (entry.isStale()) {
+            fetchServiceConfiguration(issuer, null, builder);
+        }
+
+        return entry.configuration;
+    }
+
+    /*
+     * Fetch the discovery document of an issuer and store it in the service configuration cache.
+     * An existing entry is revalidated with a conditional request. Callers asking for an issuer
+     * whose document is already being fetched wait for that request instead of starting another
+     */
+    private void fetchServiceConfiguration(final String issuer,
+            @Nullable final AuthorizationServiceConfiguration.RetrieveConfigurationCallback callback,
+            ConnectionBuilder builder) {
+        if (!mPendingServiceConfigurations.join(issuer, callback != null ? callback : IGNORE_SERVICE_CONFIGURATION)) {
+            return;
+        }
+
+        ServiceConfigurationFetcher.fetch(
+                buildConfigurationUriFromIssuer(Uri.parse(issuer)),
+                builder,
+                mServiceConfigurations.get(issuer),
+                retryPolicy,
+                new ServiceConfigurationFetcher.Callback() {
+                    @Override
+                    public void onFetchCompleted(@Nullable ServiceConfigurationCache.Entry entry,
+                            @Nullable AuthorizationException ex) {
+                        if (entry != null) {
+                            mServiceConfigurations.put(issuer, entry);
+                        }
+
+                        AuthorizationServiceConfiguration configuration = entry != null ? entry.configuration : null;
+                        for (AuthorizationServiceConfiguration.RetrieveConfigurationCallback waiting
+                                : mPendingServiceConfigurations.complete(issuer)) {
+                            waiting.onFetchConfigurationCompleted(configuration, ex);
+                        }
+                    }
+                });
+    }
+
+    /*
+     * The token endpoint of a configuration passed in or cached for the issuer
+     */
+    @Nullable
+    private Uri findTokenEndpoint(@Nullable String issuer, @Nullable ReadableMap serviceConfiguration) {
+        if (serviceConfiguration != null && serviceConfiguration.hasKey("tokenEndpoint")) {
+            return Uri.parse(serviceConfiguration.getString("tokenEndpoint"));
+        }
+
+        ServiceConfigurationCache.Entry entry = issuer != null ? mServiceConfigurations.get(issuer) : null;
+        return entry != null ? entry.configuration.tokenEndpoint : null;
+    }
+
+    /*
+     * Connect to the token endpoint ahead of the code exchange that follows the authorize redirect
+     */
+    private void warmTokenEndpoint(@Nullable Uri tokenEndpoint, ConnectionBuilder builder) {
+        if (tokenEndpoint != null) {
+            ConnectionWarmer.warm(tokenEndpoint, builder);
+        }
+    }
+
+    /*
+     * Check the ID token signature when verification is enabled and the response contains one.
+     * The keys are read from the jwks_uri of the discovery document, or the jwksUri of a passed
+     * in service configuration. They are fetched without the custom token request headers,
+     * which are meant for the token endpoint only
+     */
+    private void verifyIdToken(TokenResponse response, AppAuthConfiguration configuration,
+            @Nullable Uri configuredJwksUri, IdTokenVerifier.Callback callback) {
+        if (!verifyIdTokenSignatures || response.idToken == null) {
+            callback.onVerificationCompleted(null);
+            return;
+        }
+
+        AuthorizationServiceDiscovery discoveryDoc = response.request.configuration.discoveryDoc;
+        Uri jwksUri = discoveryDoc != null ? discoveryDoc.getJwksUri() : configuredJwksUri;
+        mIdTokenVerifier.verify(response.idToken, jwksUri,
+                getProxiedConnectionBuilder(configuration.getSkipIssuerHttpsCheck()), callback);
+    }
+
+    @Nullable
+    private static Uri getJwksUri(@Nullable ReadableMap serviceConfiguration) {
+        return serviceConfiguration != null && serviceConfiguration.hasKey("jwksUri")
+                ? Uri.parse(serviceConfiguration.getString("jwksUri"))
+                : null;
     }
 
     private void handleAuthorizationException(final String fallbackErrorCode, final AuthorizationException ex,
             final Promise promise) {
         if (ex.getLocalizedMessage() == null) {
-            promise.reject(fallbackErrorCode, ex.error, ex);
+            rejectPromise(promise, fallbackErrorCode, ex.error, ex);
         } else {
-            promise.reject(ex.error != null ? ex.error : fallbackErrorCode, ex.getLocalizedMessage(), ex);
+            String code = ex.error != null ? ex.error : fallbackErrorCode;
+            rejectPromise(promise, code, ex.getLocalizedMessage(), ex);
+        }
+    }
+
+    /*
+     * Reject a call, counting the error code in the metrics. Every rejection goes through here
+     */
+    private static void rejectPromise(Promise promise, String code, @Nullable String message,
+            @Nullable Throwable ex) {
+        AuthMetrics.onCallFailed(code);
+        promise.reject(code, message, ex);
+    }
+
+    /*
+     * Note where the service configuration of a call came from, for its timings and the
+     * discovery cache metrics
+     */
+    private void recordConfigurationSource(FlowTimings timings, @Nullable String issuer, String source) {
+        timings.setConfigurationSource(source);
+        if (issuer != null && !FlowTimings.SOURCE_PROVIDED.equals(source)) {
+            AuthMetrics.onServiceConfigurationLookup(issuer, FlowTimings.SOURCE_CACHE.equals(source));
+        }
+    }
+
+    /*
+     * Token request metrics are grouped by issuer, or by token endpoint when the configuration
+     * was passed in without a discovery document
+     */
+    private static String getMetricsIssuer(TokenRequest tokenRequest) {
+        AuthorizationServiceDiscovery discoveryDoc = tokenRequest.configuration.discoveryDoc;
+        return discoveryDoc != null ? discoveryDoc.getIssuer() : tokenRequest.configuration.tokenEndpoint.toString();
+    }
+
+    /*
+     * AppAuth only sets an error code for OAuth errors, others are told apart by their type
+     */
+    private static String getMetricsErrorCode(AuthorizationException ex) {
+        if (ex.error != null) {
+            return ex.error;
+        }
+        return ex.type == AuthorizationException.TYPE_GENERAL_ERROR
+                && ex.code == AuthorizationException.GeneralErrors.NETWORK_ERROR.code
+                ? "network_error"
+                : "token_request_failed";
+    }
+
+    /*
+     * Key identifying refresh requests that can share a single token endpoint call
+     */
+    private List<String> createRefreshKey(@Nullable String issuer, @Nullable ReadableMap serviceConfiguration,
+            String clientId, String refreshToken, @Nullable ReadableArray scopes, @Nullable String tokenStoreKey) {
+        return Arrays.asList(getAuthority(issuer, serviceConfiguration), clientId, refreshToken,
+                scopes != null ? arrayToString(scopes) : null, tokenStoreKey);
+    }
+
+    /*
+     * Key identifying the scheduled refresh of a client, the first two elements of its refresh key
+     */
+    private List<String> createScheduleKey(@Nullable String issuer, @Nullable ReadableMap serviceConfiguration,
+            String clientId) {
+        return Arrays.asList(getAuthority(issuer, serviceConfiguration), clientId);
+    }
+
+    @Nullable
+    private static HashMap<String, Object> toHashMap(@Nullable ReadableMap map) {
+        return map != null ? map.toHashMap() : null;
+    }
+
+    @Nullable
+    private static ArrayList<Object> toArrayList(@Nullable ReadableArray array) {
+        return array != null ? array.toArrayList() : null;
+    }
+
+    @Nullable
+    private String getAuthority(@Nullable String issuer, @Nullable ReadableMap serviceConfiguration) {
+        if (issuer == null && serviceConfiguration != null && serviceConfiguration.hasKey("tokenEndpoint")) {
+            return serviceConfiguration.getString("tokenEndpoint");
+        }
+        return issuer;
+    }
+
+    private void rejectRefresh(List<String> refreshKey, String code, String message, @Nullable Throwable ex) {
+        for (Promise promise : mPendingRefreshes.complete(refreshKey)) {
+            rejectPromise(promise, code, message, ex);
+        }
+    }
+
+    private void resolveFlow(AuthFlowRegistry.Flow flow, WritableMap map) {
+        attachTimings(map, flow.timings);
+        List<Promise> promises = mFlows.complete(flow);
+        // a map can only be sent over the bridge once, so every caller but the first gets a copy
+        for (int i = 1; i < promises.size(); i++) {
+            promises.get(i).resolve(map.copy());
+        }
+        if (!promises.isEmpty()) {
+            promises.get(0).resolve(map);
+        }
+    }
+
+    /*
+     * Add the phase timings of a call to its result when they were asked for. This happens after
+     * the tokens are stored, so stored results don't carry them
+     */
+    private void attachTimings(WritableMap map, FlowTimings timings) {
+        if (includeTimings) {
+            timings.mark(FlowTimings.RESULT_CONVERTED);
+            map.putMap("timings", timings.toMap());
+        }
+    }
+
+    private void rejectFlow(AuthFlowRegistry.Flow flow, String code, String message, @Nullable Throwable ex) {
+        for (Promise promise : mFlows.complete(flow)) {
+            rejectPromise(promise, code, message, ex);
+        }
+    }
+
+    /*
+     * Reject the callers of flows that will not get a result
+     */
+    private void rejectFlows(List<AuthFlowRegistry.Flow> flows, String message) {
+        for (AuthFlowRegistry.Flow flow : flows) {
+            String code = flow.type == AuthFlowRegistry.TYPE_END_SESSION
+                    ? "end_session_failed"
+                    : "authentication_failed";
+            rejectFlow(flow, code, message, null);
+        }
+    }
+
+    private void rejectFlow(AuthFlowRegistry.Flow flow, String fallbackErrorCode, AuthorizationException ex) {
+        for (Promise promise : mFlows.complete(flow)) {
+            handleAuthorizationException(fallbackErrorCode, ex, promise);
         }
     }
 
@@ -1056,6 +1851,13 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
             return AnyBrowserMatcher.INSTANCE;
         }
 
+        // the matchers only depend on the browser names, so they are built once per list
+        List<Object> browsers = androidAllowCustomBrowsers.toArrayList();
+        BrowserMatcher cached = mBrowserAllowLists.get(browsers);
+        if (cached != null) {
+            return cached;
+        }
+
         MutableBrowserAllowList browserMatchers = new MutableBrowserAllowList();
 
         for (int i = 0; i < androidAllowCustomBrowsers.size(); i++) {
@@ -1092,9 +1894,74 @@ public class RNAppAuthModule extends ReactContextBaseJavaModule implements Activ
                 }
             }
         }
+        mBrowserAllowLists.put(browsers, browserMatchers);
         return browserMatchers;
     }
 
+    /*
+     * Report the outcome of a scheduled refresh to JS as a SCHEDULED_REFRESH_EVENT
+     */
+    private Promise createScheduledRefreshPromise(final List<String> key) {
+        return new PromiseImpl(
+                new Callback() {
+                    @Override
+                    public void invoke(Object... args) {
+                        WritableMap event = createScheduledRefreshEvent(key);
+                        event.putMap("result", (WritableMap) args[0]);
+                        emitScheduledRefreshEvent(event);
+                    }
+                },
+                new Callback() {
+                    @Override
+                    public void invoke(Object... args) {
+                        ReadableMap errorInfo = (ReadableMap) args[0];
+                        String code = errorInfo.hasKey("code") ? errorInfo.getString("code") : null;
+                        WritableMap error = Arguments.createMap();
+                        error.putString("code", code);
+                        error.putString("message", errorInfo.hasKey("message") ? errorInfo.getString("message") : null);
+
+                        WritableMap event = createScheduledRefreshEvent(key);
+                        event.putMap("error", error);
+                        long retryAt = mRefreshScheduler.onRefreshFailed(key, code);
+                        if (retryAt >= 0) {
+                            event.putDouble("retryAt", retryAt);
+                        } else {
+                            // the schedule was dropped, JS has to schedule again after refreshing itself
+                            event.putNull("retryAt");
+                        }
+                        emitScheduledRefreshEvent(event);
+                    }
+                });
+    }
+
+    private WritableMap createScheduledRefreshEvent(List<String> key) {
+        WritableMap event = Arguments.createMap();
+        event.putString("issuer", key.get(0));
+        event.putString("clientId", key.get(1));
+        return event;
+    }
+
+    private void emitScheduledRefreshEvent(WritableMap event) {
+        if (!reactContext.hasActiveReactInstance()) {
+            return;
+        }
+        reactContext
+                .getJSModule(DeviceEventManagerModule.RCTDeviceEventEmitter.class)
+                .emit(SCHEDULED_REFRESH_EVENT, event);
+    }
+
+    /*
+     * Release the Custom Tabs bindings held by pooled authorization services, stop scheduled
+     * refreshes and reject the flows whose results can no longer be delivered
+     */
+    @Override
+    public void invalidate() {
+        mRefreshScheduler.cancelAll();
+        rejectFlows(mFlows.getAll(), "Module invalidated");
+        mAuthorizationServices.dispose();
+        super.invalidate();
+    }
+
     @Override
     public void onNewIntent(Intent intent) {
 
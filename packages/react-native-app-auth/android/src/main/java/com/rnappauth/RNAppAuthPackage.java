@@ -9,8 +9,20 @@ import com.facebook.react.bridge.NativeModule;
 import com.facebook.react.bridge.ReactApplicationContext;
 import com.facebook.react.uimanager.ViewManager;
 import com.facebook.react.bridge.JavaScriptModule;
+import com.rnappauth.utils.AuthMetrics;
 
 public class RNAppAuthPackage implements ReactPackage {
+    /*
+     * Register a listener for the metrics of every module instance, including ones created later
+     */
+    public static void addMetricsListener(AuthMetricsListener listener) {
+        AuthMetrics.addListener(listener);
+    }
+
+    public static void removeMetricsListener(AuthMetricsListener listener) {
+        AuthMetrics.removeListener(listener);
+    }
+
     @Override
     public List<NativeModule> createNativeModules(ReactApplicationContext reactContext) {
       return Arrays.<NativeModule>asList(new RNAppAuthModule(reactContext));
@@ -0,0 +1,179 @@
+package com.rnappauth;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Promise;
+import com.rnappauth.utils.RetryPolicy;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refreshes tokens shortly before they expire. Each schedule is keyed by issuer and client id and
+ * is rescheduled with the new refresh token and expiry whenever a refresh for that key succeeds,
+ * whether it was started by the scheduler or on demand. Scheduling uses the main looper, so
+ * refreshes only happen while the app process is alive. The refreshes themselves are handed to
+ * the refresh executor, so their configuration lookup and setup stay off the main thread.
+ *
+ * A scheduled refresh that fails is retried with backoff until the access token expires, unless
+ * the token endpoint rejected the refresh token or client, which a retry won't change. After
+ * that the schedule is dropped, and onRefreshFailed tells the caller so.
+ */
+final class TokenRefreshScheduler {
+
+    interface RefreshTask {
+        void refresh(String refreshToken, Promise promise);
+    }
+
+    interface PromiseFactory {
+        Promise create(List<String> key);
+    }
+
+    /*
+     * Token endpoint errors that mean the refresh will keep failing, see RFC 6749 section 5.2
+     */
+    private static final Set<String> PERMANENT_ERRORS = new HashSet<>(Arrays.asList(
+            "invalid_request", "invalid_client", "invalid_grant", "unauthorized_client",
+            "unsupported_grant_type", "invalid_scope"));
+
+    private static final RetryPolicy RETRY_POLICY = new RetryPolicy(
+            5, TimeUnit.SECONDS.toMillis(5), TimeUnit.MINUTES.toMillis(2), true);
+
+    private final class ScheduledRefresh implements Runnable {
+        final List<String> key;
+        final RefreshTask task;
+        final long skewMillis;
+        String refreshToken;
+        long expiresAtMillis;
+        int failures = 0;
+
+        ScheduledRefresh(List<String> key, RefreshTask task, String refreshToken, long skewMillis) {
+            this.key = key;
+            this.task = task;
+            this.refreshToken = refreshToken;
+            this.skewMillis = skewMillis;
+        }
+
+        @Override
+        public void run() {
+            refreshExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    String token;
+                    synchronized (TokenRefreshScheduler.this) {
+                        // cancelled or replaced while waiting for the executor
+                        if (scheduled.get(key) != ScheduledRefresh.this) {
+                            return;
+                        }
+                        token = refreshToken;
+                    }
+                    task.refresh(token, promiseFactory.create(key));
+                }
+            });
+        }
+    }
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Map<List<String>, ScheduledRefresh> scheduled = new HashMap<>();
+    private final PromiseFactory promiseFactory;
+    private final Executor refreshExecutor;
+
+    TokenRefreshScheduler(PromiseFactory promiseFactory, Executor refreshExecutor) {
+        this.promiseFactory = promiseFactory;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /*
+     * Schedule a refresh skewMillis before expiresAtMillis, replacing any schedule for the key.
+     * Returns the wall clock time the refresh will run at
+     */
+    synchronized long schedule(@NonNull List<String> key, @NonNull RefreshTask task, @NonNull String refreshToken,
+            long expiresAtMillis, long skewMillis) {
+        cancel(key);
+
+        ScheduledRefresh refresh = new ScheduledRefresh(key, task, refreshToken, skewMillis);
+        refresh.expiresAtMillis = expiresAtMillis;
+        scheduled.put(key, refresh);
+        return post(refresh, expiresAtMillis - skewMillis);
+    }
+
+    synchronized void cancel(@NonNull List<String> key) {
+        ScheduledRefresh refresh = scheduled.remove(key);
+        if (refresh != null) {
+            handler.removeCallbacks(refresh);
+        }
+    }
+
+    synchronized void cancelAll() {
+        for (ScheduledRefresh refresh : scheduled.values()) {
+            handler.removeCallbacks(refresh);
+        }
+        scheduled.clear();
+    }
+
+    /*
+     * Move a schedule to the tokens returned by a successful refresh. Providers that do not
+     * rotate refresh tokens return none, in which case the previous one stays in use
+     */
+    synchronized void onTokensRefreshed(@NonNull List<String> key, @Nullable String refreshToken,
+            @Nullable Long expiresAtMillis) {
+        ScheduledRefresh refresh = scheduled.get(key);
+        if (refresh == null) {
+            return;
+        }
+
+        handler.removeCallbacks(refresh);
+        refresh.failures = 0;
+        if (refreshToken != null) {
+            refresh.refreshToken = refreshToken;
+        }
+
+        if (expiresAtMillis == null) {
+            // nothing left to schedule against
+            scheduled.remove(key);
+            return;
+        }
+
+        refresh.expiresAtMillis = expiresAtMillis;
+        post(refresh, expiresAtMillis - refresh.skewMillis);
+    }
+
+    /*
+     * Retry a scheduled refresh that failed with the given error code. Returns the wall clock
+     * time of the retry, or -1 when the schedule was dropped instead
+     */
+    synchronized long onRefreshFailed(@NonNull List<String> key, @Nullable String errorCode) {
+        ScheduledRefresh refresh = scheduled.get(key);
+        if (refresh == null) {
+            return -1;
+        }
+
+        refresh.failures++;
+        long now = System.currentTimeMillis();
+        if (PERMANENT_ERRORS.contains(errorCode) || !RETRY_POLICY.canRetry(refresh.failures)
+                || now >= refresh.expiresAtMillis) {
+            handler.removeCallbacks(refresh);
+            scheduled.remove(key);
+            return -1;
+        }
+
+        // the last retry happens when the access token expires, after that a refresh is up to the app
+        long runAt = Math.min(now + RETRY_POLICY.getDelayMillis(refresh.failures), refresh.expiresAtMillis);
+        return post(refresh, runAt);
+    }
+
+    private long post(ScheduledRefresh refresh, long runAt) {
+        handler.postDelayed(refresh, Math.max(0, runAt - System.currentTimeMillis()));
+        return runAt;
+    }
+}
@@ -0,0 +1,190 @@
+package com.rnappauth.utils;
+
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Promise;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the state of every browser flow in progress, so concurrent authorize and logout calls
+ * don't overwrite each other's promise, code verifier or token request settings.
+ *
+ * Each flow is identified by the state parameter of its request, and is given its own activity
+ * request code, because the result of a cancelled or failed flow only carries the request code.
+ * A call that matches a flow in progress joins it rather than opening a second browser tab, and
+ * settles with the same result.
+ *
+ * The activity result of a flow may never arrive, for example when the activity it was started
+ * from is destroyed without delivering it. A flow is therefore only joined while it is younger
+ * than FLOW_EXPIRY_MILLIS. A matching call after that starts a flow of its own, and getExpired
+ * returns the old flows so their callers can be rejected.
+ */
+public final class AuthFlowRegistry {
+
+    public static final int TYPE_AUTHORIZE = 0;
+    public static final int TYPE_END_SESSION = 1;
+
+    /*
+     * Request codes handed out to flows. The range is kept below 0xFFFF, since FragmentActivity
+     * only accepts request codes that fit in 16 bits
+     */
+    private static final int FIRST_REQUEST_CODE = 0x5200;
+    private static final int REQUEST_CODE_COUNT = 0x100;
+
+    /*
+     * How long a flow can be joined. A login can take a while when the user has to look up a
+     * password or a second factor, so this is generous
+     */
+    static final long FLOW_EXPIRY_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int STATE_ENTROPY_BYTES = 16;
+
+    public static final class Flow {
+        public final int type;
+        public final String state;
+        public final int requestCode;
+        private final List<Object> key;
+        private final List<Promise> promises = new ArrayList<>();
+        private final long startedAt = SystemClock.elapsedRealtime();
+        public final FlowTimings timings = new FlowTimings();
+
+        // token exchange settings of an authorize flow, captured when the flow starts
+        public boolean dangerouslyAllowInsecureHttpRequests;
+        @Nullable public Map<String, String> additionalParametersMap;
+        @Nullable public Map<String, String> tokenRequestHeaders;
+        @Nullable public String clientSecret;
+        public String clientAuthMethod = "basic";
+        public boolean skipCodeExchange;
+        public boolean usePKCE;
+        @Nullable public String codeVerifier;
+        @Nullable public String tokenStoreKey;
+        @Nullable public Uri jwksUri;
+
+        Flow(int type, String state, int requestCode, List<Object> key) {
+            this.type = type;
+            this.state = state;
+            this.requestCode = requestCode;
+            this.key = key;
+        }
+    }
+
+    private final Map<List<Object>, Flow> flowsByKey = new HashMap<>();
+    private final Map<String, Flow> flowsByState = new HashMap<>();
+    private final Map<Integer, Flow> flowsByRequestCode = new HashMap<>();
+    private int nextRequestCode = FIRST_REQUEST_CODE;
+
+    /*
+     * Register a caller for the flow identified by key. Returns the new flow when the caller is
+     * the first and is responsible for starting it, or null when it joined a flow in progress.
+     * The state is used as the flow id when given, and generated otherwise
+     */
+    @Nullable
+    public synchronized Flow join(int type, @NonNull List<Object> key, @Nullable String state,
+            @NonNull Promise promise) {
+        Flow existing = flowsByKey.get(key);
+        if (existing != null && isExpired(existing, SystemClock.elapsedRealtime())) {
+            flowsByKey.remove(key);
+        } else if (existing != null) {
+            existing.promises.add(promise);
+            return null;
+        }
+
+        if (state == null) {
+            state = generateState();
+        } else if (flowsByState.containsKey(state)) {
+            throw new IllegalStateException("Another flow with the same state is in progress");
+        }
+
+        Flow flow = new Flow(type, state, allocateRequestCode(), key);
+        flow.promises.add(promise);
+        flowsByKey.put(key, flow);
+        flowsByState.put(state, flow);
+        flowsByRequestCode.put(flow.requestCode, flow);
+        return flow;
+    }
+
+    @Nullable
+    public synchronized Flow getByRequestCode(int requestCode) {
+        return flowsByRequestCode.get(requestCode);
+    }
+
+    /*
+     * Remove a flow and return every promise waiting on it, in the order they joined
+     */
+    @NonNull
+    public synchronized List<Promise> complete(@NonNull Flow flow) {
+        if (flowsByState.get(flow.state) != flow) {
+            return new ArrayList<>();
+        }
+
+        if (flowsByKey.get(flow.key) == flow) {
+            flowsByKey.remove(flow.key);
+        }
+        flowsByState.remove(flow.state);
+        flowsByRequestCode.remove(flow.requestCode);
+        return new ArrayList<>(flow.promises);
+    }
+
+    /*
+     * Return the flows that were started FLOW_EXPIRY_MILLIS or more ago. They stay registered
+     * until they are completed, but are no longer joined
+     */
+    @NonNull
+    public synchronized List<Flow> getExpired() {
+        long now = SystemClock.elapsedRealtime();
+        List<Flow> expired = new ArrayList<>();
+        for (Flow flow : flowsByState.values()) {
+            if (isExpired(flow, now)) {
+                expired.add(flow);
+            }
+        }
+        return expired;
+    }
+
+    /*
+     * Return every flow in progress, for when the activities they were started from are gone
+     */
+    @NonNull
+    public synchronized List<Flow> getAll() {
+        return new ArrayList<>(flowsByState.values());
+    }
+
+    private static boolean isExpired(Flow flow, long now) {
+        return now - flow.startedAt >= FLOW_EXPIRY_MILLIS;
+    }
+
+    private int allocateRequestCode() {
+        if (flowsByRequestCode.size() >= REQUEST_CODE_COUNT) {
+            throw new IllegalStateException("Too many flows in progress");
+        }
+
+        while (flowsByRequestCode.containsKey(nextRequestCode)) {
+            nextRequestCode = advance(nextRequestCode);
+        }
+        int requestCode = nextRequestCode;
+        nextRequestCode = advance(nextRequestCode);
+        return requestCode;
+    }
+
+    private static int advance(int requestCode) {
+        return requestCode + 1 < FIRST_REQUEST_CODE + REQUEST_CODE_COUNT ? requestCode + 1 : FIRST_REQUEST_CODE;
+    }
+
+    private static String generateState() {
+        byte[] bytes = new byte[STATE_ENTROPY_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.encodeToString(bytes, Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP);
+    }
+}
@@ -0,0 +1,82 @@
+package com.rnappauth.utils;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.rnappauth.AuthMetricsListener;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Passes metrics on to the in-memory aggregate that JS reads, and to the listeners registered by
+ * the app. A listener that throws is logged and skipped, so it can't break an auth call.
+ */
+public final class AuthMetrics {
+
+    private static final String TAG = "RNAppAuth";
+
+    private static final InMemoryAuthMetrics IN_MEMORY = new InMemoryAuthMetrics();
+    private static final CopyOnWriteArrayList<AuthMetricsListener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private AuthMetrics() {
+    }
+
+    public static InMemoryAuthMetrics getInMemory() {
+        return IN_MEMORY;
+    }
+
+    public static void addListener(@NonNull AuthMetricsListener listener) {
+        LISTENERS.addIfAbsent(listener);
+    }
+
+    public static void removeListener(@NonNull AuthMetricsListener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    public static void onServiceConfigurationLookup(@NonNull String issuer, boolean cacheHit) {
+        IN_MEMORY.onServiceConfigurationLookup(issuer, cacheHit);
+        for (AuthMetricsListener listener : LISTENERS) {
+            try {
+                listener.onServiceConfigurationLookup(issuer, cacheHit);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Metrics listener failed", e);
+            }
+        }
+    }
+
+    public static void onTokenRequestCompleted(@NonNull String issuer, @NonNull String grantType,
+            long durationMillis, @Nullable String errorCode) {
+        IN_MEMORY.onTokenRequestCompleted(issuer, grantType, durationMillis, errorCode);
+        for (AuthMetricsListener listener : LISTENERS) {
+            try {
+                listener.onTokenRequestCompleted(issuer, grantType, durationMillis, errorCode);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Metrics listener failed", e);
+            }
+        }
+    }
+
+    public static void onTokenRequestRetried(@NonNull String issuer, int attempt) {
+        IN_MEMORY.onTokenRequestRetried(issuer, attempt);
+        for (AuthMetricsListener listener : LISTENERS) {
+            try {
+                listener.onTokenRequestRetried(issuer, attempt);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Metrics listener failed", e);
+            }
+        }
+    }
+
+    public static void onCallFailed(@NonNull String errorCode) {
+        IN_MEMORY.onCallFailed(errorCode);
+        for (AuthMetricsListener listener : LISTENERS) {
+            try {
+                listener.onCallFailed(errorCode);
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Metrics listener failed", e);
+            }
+        }
+    }
+}
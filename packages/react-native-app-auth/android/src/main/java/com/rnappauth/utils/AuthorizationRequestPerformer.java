@@ -0,0 +1,169 @@
+package com.rnappauth.utils;
+
+import android.os.AsyncTask;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.openid.appauth.AppAuthConfiguration;
+import net.openid.appauth.AuthorizationService;
+import net.openid.appauth.ClientAuthentication;
+import net.openid.appauth.RegistrationRequest;
+import net.openid.appauth.TokenRequest;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+
+/**
+ * Runs the token and registration requests of {@link AuthorizationService} on the
+ * {@link NetworkExecutor}. AuthorizationService starts its request tasks with AsyncTask.execute,
+ * which queues them on the process-wide serial executor, so requests to different servers wait
+ * for each other. The same AppAuth tasks are started here with executeOnExecutor, so the request,
+ * the response handling and the ID token validation all stay AppAuth's own. The tasks are not
+ * public, so if they can't be created, for example because a newer AppAuth changed them, requests
+ * go through the AuthorizationService as before. The consumer ProGuard rules of the module keep
+ * the tasks and the clock from being renamed or removed when the app is minified.
+ */
+public final class AuthorizationRequestPerformer {
+
+    private static final String TAG = "RNAppAuth";
+
+    private static final String TOKEN_REQUEST_TASK = "net.openid.appauth.AuthorizationService$TokenRequestTask";
+    private static final String REGISTRATION_REQUEST_TASK =
+            "net.openid.appauth.AuthorizationService$RegistrationRequestTask";
+    private static final String SYSTEM_CLOCK = "net.openid.appauth.SystemClock";
+
+    private static boolean loaded = false;
+    @Nullable private static Constructor<?> tokenRequestTask;
+    @Nullable private static Constructor<?> registrationRequestTask;
+    @Nullable private static Object clock;
+
+    private AuthorizationRequestPerformer() {
+    }
+
+    public static void performTokenRequest(
+            @NonNull AuthorizationService service,
+            @NonNull TokenRequest request,
+            @NonNull ClientAuthentication clientAuthentication,
+            @NonNull AppAuthConfiguration configuration,
+            @NonNull AuthorizationService.TokenResponseCallback callback) {
+        AsyncTask<?, ?, ?> task = createTask(getTokenRequestTask(), request, clientAuthentication,
+                configuration.getConnectionBuilder(), callback, configuration.getSkipIssuerHttpsCheck());
+        if (task == null) {
+            service.performTokenRequest(request, clientAuthentication, callback);
+            return;
+        }
+        task.executeOnExecutor(NetworkExecutor.get());
+    }
+
+    public static void performRegistrationRequest(
+            @NonNull AuthorizationService service,
+            @NonNull RegistrationRequest request,
+            @NonNull AppAuthConfiguration configuration,
+            @NonNull AuthorizationService.RegistrationResponseCallback callback) {
+        AsyncTask<?, ?, ?> task = createTask(getRegistrationRequestTask(), request,
+                configuration.getConnectionBuilder(), callback);
+        if (task == null) {
+            service.performRegistrationRequest(request, callback);
+            return;
+        }
+        task.executeOnExecutor(NetworkExecutor.get());
+    }
+
+    /*
+     * Whether requests run on the NetworkExecutor, rather than falling back to the
+     * AuthorizationService
+     */
+    static synchronized boolean isAvailable() {
+        load();
+        return tokenRequestTask != null && registrationRequestTask != null;
+    }
+
+    @Nullable
+    private static synchronized Constructor<?> getTokenRequestTask() {
+        load();
+        return tokenRequestTask;
+    }
+
+    @Nullable
+    private static synchronized Constructor<?> getRegistrationRequestTask() {
+        load();
+        return registrationRequestTask;
+    }
+
+    private static void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+
+        try {
+            Field instance = Class.forName(SYSTEM_CLOCK).getDeclaredField("INSTANCE");
+            instance.setAccessible(true);
+            clock = instance.get(null);
+            tokenRequestTask = findTaskConstructor(TOKEN_REQUEST_TASK);
+            registrationRequestTask = findTaskConstructor(REGISTRATION_REQUEST_TASK);
+        } catch (Exception e) {
+            tokenRequestTask = null;
+            registrationRequestTask = null;
+            Log.w(TAG, "AppAuth request tasks are not available, requests will run on the serial executor", e);
+        }
+    }
+
+    private static Constructor<?> findTaskConstructor(String className) throws Exception {
+        Class<?> taskClass = Class.forName(className);
+        if (!AsyncTask.class.isAssignableFrom(taskClass)) {
+            throw new ClassNotFoundException(className + " is not an AsyncTask");
+        }
+
+        Constructor<?>[] constructors = taskClass.getDeclaredConstructors();
+        if (constructors.length != 1) {
+            throw new NoSuchMethodException(className + " has " + constructors.length + " constructors");
+        }
+        constructors[0].setAccessible(true);
+        return constructors[0];
+    }
+
+    /*
+     * Create a task, passing each constructor parameter the argument of its type. The constructor
+     * parameters are matched by type rather than position so a reordering in AppAuth doesn't
+     * silently pass the wrong value
+     */
+    @Nullable
+    private static AsyncTask<?, ?, ?> createTask(@Nullable Constructor<?> constructor, Object... arguments) {
+        if (constructor == null) {
+            return null;
+        }
+
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+        Object[] parameters = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> type = parameterTypes[i];
+            if (type.isInstance(clock)) {
+                parameters[i] = clock;
+                continue;
+            }
+            if (type == boolean.class) {
+                type = Boolean.class;
+            }
+            for (Object argument : arguments) {
+                if (type.isInstance(argument)) {
+                    parameters[i] = argument;
+                    break;
+                }
+            }
+            if (parameters[i] == null) {
+                Log.w(TAG, "Unexpected parameter " + type.getName() + " of " + constructor.getName());
+                return null;
+            }
+        }
+
+        try {
+            return (AsyncTask<?, ?, ?>) constructor.newInstance(parameters);
+        } catch (Exception e) {
+            Log.w(TAG, "Could not create " + constructor.getName(), e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.rnappauth.utils;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+
+import androidx.annotation.NonNull;
+
+import net.openid.appauth.AppAuthConfiguration;
+import net.openid.appauth.AuthorizationService;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps one {@link AuthorizationService} per {@link AppAuthConfiguration}. Constructing a service
+ * scans the installed browsers and binds to the Custom Tabs service of the selected one, so
+ * services are reused across calls. Each service holds a binding, so only the MAX_SERVICES most
+ * recently used are kept, and the least recently used one is dropped when another is added.
+ * The browser chosen by a service goes stale when packages are installed or removed, so
+ * pooled services are dropped on those broadcasts and recreated on next use.
+ *
+ * Services are handed out with acquire and must be given back with release once the caller is
+ * done with them, which for a token request is when its callback ran. A dropped service is only
+ * disposed when no caller is using it anymore, since a disposed service throws on every call.
+ */
+public final class AuthorizationServicePool {
+
+    /*
+     * Apps typically use one or two configurations, one per identity provider
+     */
+    static final int MAX_SERVICES = 4;
+
+    private final Context context;
+    private final Map<AppAuthConfiguration, AuthorizationService> services =
+            new LinkedHashMap<AppAuthConfiguration, AuthorizationService>(MAX_SERVICES + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<AppAuthConfiguration, AuthorizationService> eldest) {
+                    if (size() <= MAX_SERVICES) {
+                        return false;
+                    }
+                    retire(eldest.getValue());
+                    return true;
+                }
+            };
+
+    // the number of callers using each service that was handed out and not released yet
+    private final Map<AuthorizationService, Integer> useCounts = new IdentityHashMap<>();
+    // services that are no longer handed out, to be disposed when their last caller releases them
+    private final Map<AuthorizationService, Boolean> retired = new IdentityHashMap<>();
+    private boolean receiverRegistered = false;
+
+    private final BroadcastReceiver packageChangeReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            evict();
+        }
+    };
+
+    public AuthorizationServicePool(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @NonNull
+    public synchronized AuthorizationService acquire(@NonNull AppAuthConfiguration configuration) {
+        AuthorizationService service = services.get(configuration);
+        if (service == null) {
+            registerPackageChangeReceiver();
+            service = new AuthorizationService(context, configuration);
+            services.put(configuration, service);
+        }
+        use(service);
+        return service;
+    }
+
+    /*
+     * Create a service bound to an activity, for requests that have to be started from one. It
+     * is not shared, and is disposed when it is released
+     */
+    @NonNull
+    public synchronized AuthorizationService acquire(@NonNull Context activityContext,
+            @NonNull AppAuthConfiguration configuration) {
+        AuthorizationService service = new AuthorizationService(activityContext, configuration);
+        use(service);
+        retired.put(service, Boolean.TRUE);
+        return service;
+    }
+
+    public synchronized void release(@NonNull AuthorizationService service) {
+        Integer count = useCounts.get(service);
+        if (count == null) {
+            return;
+        }
+
+        if (count > 1) {
+            useCounts.put(service, count - 1);
+            return;
+        }
+        useCounts.remove(service);
+        if (retired.remove(service) != null) {
+            service.dispose();
+        }
+    }
+
+    /*
+     * Dispose every service, including the ones still in use, when the module is torn down
+     */
+    public synchronized void dispose() {
+        for (AuthorizationService service : services.values()) {
+            service.dispose();
+        }
+        for (AuthorizationService service : retired.keySet()) {
+            service.dispose();
+        }
+        services.clear();
+        retired.clear();
+        useCounts.clear();
+
+        if (receiverRegistered) {
+            context.unregisterReceiver(packageChangeReceiver);
+            receiverRegistered = false;
+        }
+    }
+
+    private synchronized void evict() {
+        for (AuthorizationService service : new ArrayList<>(services.values())) {
+            retire(service);
+        }
+        services.clear();
+    }
+
+    private void use(AuthorizationService service) {
+        Integer count = useCounts.get(service);
+        useCounts.put(service, count == null ? 1 : count + 1);
+    }
+
+    private void retire(AuthorizationService service) {
+        if (useCounts.containsKey(service)) {
+            retired.put(service, Boolean.TRUE);
+        } else {
+            service.dispose();
+        }
+    }
+
+    private void registerPackageChangeReceiver() {
+        if (receiverRegistered) {
+            return;
+        }
+
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(Intent.ACTION_PACKAGE_ADDED);
+        filter.addAction(Intent.ACTION_PACKAGE_REMOVED);
+        filter.addAction(Intent.ACTION_PACKAGE_CHANGED);
+        filter.addDataScheme("package");
+        context.registerReceiver(packageChangeReceiver, filter);
+        receiverRegistered = true;
+    }
+}
@@ -0,0 +1,117 @@
+package com.rnappauth.utils;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.openid.appauth.AuthorizationException;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stops sending requests to an endpoint that keeps failing. After failureThreshold consecutive
+ * failures the circuit of the endpoint opens and requests fail immediately, instead of each one
+ * waiting for the connection timeout. Once resetTimeoutMillis has passed, a single request is let
+ * through as a probe: the circuit closes again if it succeeds, and stays open for another
+ * resetTimeoutMillis if it fails.
+ *
+ * Only outages count as failures. A response with an OAuth error like invalid_grant shows that
+ * the endpoint is up, so it resets the failure count like a success does.
+ */
+public final class CircuitBreaker {
+
+    public static final String ERROR_CODE = "token_endpoint_unavailable";
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_RESET_TIMEOUT_MS = 30000;
+
+    public final int failureThreshold;
+    public final long resetTimeoutMillis;
+
+    private final Map<String, Circuit> circuits = new HashMap<>();
+
+    private static final class Circuit {
+        int consecutiveFailures = 0;
+        long openedAt = -1;
+        boolean probing = false;
+
+        boolean isOpen() {
+            return openedAt >= 0;
+        }
+    }
+
+    public CircuitBreaker(int failureThreshold, long resetTimeoutMillis) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        if (resetTimeoutMillis < 0) {
+            throw new IllegalArgumentException("resetTimeoutMillis must not be negative");
+        }
+
+        this.failureThreshold = failureThreshold;
+        this.resetTimeoutMillis = resetTimeoutMillis;
+    }
+
+    /*
+     * Whether a request to the endpoint may be sent. Every permitted request must be followed by
+     * a call to onRequestCompleted
+     */
+    public synchronized boolean tryAcquire(@NonNull String endpoint) {
+        Circuit circuit = circuits.get(endpoint);
+        if (circuit == null || !circuit.isOpen()) {
+            return true;
+        }
+
+        if (circuit.probing || SystemClock.elapsedRealtime() - circuit.openedAt < resetTimeoutMillis) {
+            return false;
+        }
+
+        circuit.probing = true;
+        return true;
+    }
+
+    public synchronized void onRequestCompleted(@NonNull String endpoint, boolean failed) {
+        if (!failed) {
+            circuits.remove(endpoint);
+            return;
+        }
+
+        Circuit circuit = circuits.get(endpoint);
+        if (circuit == null) {
+            circuit = new Circuit();
+            circuits.put(endpoint, circuit);
+        }
+
+        circuit.consecutiveFailures++;
+        if (circuit.probing || (!circuit.isOpen() && circuit.consecutiveFailures >= failureThreshold)) {
+            circuit.openedAt = SystemClock.elapsedRealtime();
+            circuit.probing = false;
+        }
+    }
+
+    public synchronized AuthorizationException createOpenException(@NonNull String endpoint) {
+        Circuit circuit = circuits.get(endpoint);
+        long retryAfterMillis = circuit != null && circuit.isOpen()
+                ? Math.max(0, resetTimeoutMillis - (SystemClock.elapsedRealtime() - circuit.openedAt))
+                : 0;
+
+        return new AuthorizationException(
+                AuthorizationException.TYPE_GENERAL_ERROR,
+                AuthorizationException.GeneralErrors.SERVER_ERROR.code,
+                ERROR_CODE,
+                "Requests to " + endpoint + " failed " + failureThreshold
+                        + " times in a row, not retrying for " + retryAfterMillis + "ms",
+                null,
+                null);
+    }
+
+    /*
+     * Failures that indicate the endpoint is unreachable or not working, rather than rejecting
+     * the request. These are the failures a repeatable request would be retried for
+     */
+    public static boolean isOutage(@Nullable AuthorizationException ex) {
+        return RetryPolicy.isRetryable(ex, true);
+    }
+}
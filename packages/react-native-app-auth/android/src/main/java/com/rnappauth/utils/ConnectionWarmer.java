@@ -0,0 +1,48 @@
+package com.rnappauth.utils;
+
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import net.openid.appauth.connectivity.ConnectionBuilder;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+
+/**
+ * Opens a connection to an endpoint ahead of the request that needs it, so DNS resolution and
+ * the TCP and TLS handshakes are done by the time that request is made. Both the platform
+ * {@link HttpURLConnection} and {@link OkHttpConnectionBuilder} keep the connection in their pool
+ * once the response is consumed, where the next request to the same host picks it up.
+ * The connection is opened with a HEAD request, which token endpoints typically answer with
+ * 405 Method Not Allowed; the response itself is ignored. It runs on the {@link NetworkExecutor}
+ * like the module's other requests, so it counts towards the same concurrency limit.
+ */
+public final class ConnectionWarmer {
+
+    private static final String TAG = "RNAppAuth";
+
+    private ConnectionWarmer() {
+    }
+
+    public static void warm(@NonNull final Uri endpoint, @NonNull final ConnectionBuilder connectionBuilder) {
+        NetworkExecutor.get().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    HttpURLConnection conn = connectionBuilder.openConnection(endpoint);
+                    conn.setRequestMethod("HEAD");
+                    int status = conn.getResponseCode();
+
+                    // the connection is only returned to the pool once the response is consumed
+                    ServiceConfigurationFetcher.readStream(status >= HttpURLConnection.HTTP_BAD_REQUEST
+                            ? conn.getErrorStream()
+                            : conn.getInputStream());
+                } catch (IOException | RuntimeException e) {
+                    Log.d(TAG, "Failed to warm connection to " + endpoint, e);
+                }
+            }
+        });
+    }
+}
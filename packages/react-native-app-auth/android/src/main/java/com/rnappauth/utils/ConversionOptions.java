@@ -0,0 +1,57 @@
+package com.rnappauth.utils;
+
+/**
+ * Process wide options controlling how responses are converted before they are sent over the
+ * bridge. Set from JS through configure and read on every conversion.
+ */
+public final class ConversionOptions {
+
+    public static final String DATE_FORMAT_ISO_8601 = "iso8601";
+    public static final String DATE_FORMAT_EPOCH_MILLIS = "epochMillis";
+
+    private static volatile boolean epochMillisDates = false;
+    private static volatile boolean expandJsonParameters = true;
+    private static volatile boolean largeIntegersAsStrings = false;
+    private static volatile boolean decodeIdTokenClaims = false;
+
+    private ConversionOptions() {
+    }
+
+    public static boolean useEpochMillisDates() {
+        return epochMillisDates;
+    }
+
+    public static boolean shouldExpandJsonParameters() {
+        return expandJsonParameters;
+    }
+
+    public static void setExpandJsonParameters(boolean expand) {
+        expandJsonParameters = expand;
+    }
+
+    public static boolean useStringsForLargeIntegers() {
+        return largeIntegersAsStrings;
+    }
+
+    public static void setLargeIntegersAsStrings(boolean asStrings) {
+        largeIntegersAsStrings = asStrings;
+    }
+
+    public static boolean shouldDecodeIdTokenClaims() {
+        return decodeIdTokenClaims;
+    }
+
+    public static void setDecodeIdTokenClaims(boolean decode) {
+        decodeIdTokenClaims = decode;
+    }
+
+    public static void setDateFormat(String dateFormat) {
+        if (DATE_FORMAT_EPOCH_MILLIS.equals(dateFormat)) {
+            epochMillisDates = true;
+        } else if (DATE_FORMAT_ISO_8601.equals(dateFormat)) {
+            epochMillisDates = false;
+        } else {
+            throw new IllegalArgumentException("Unsupported date format " + dateFormat);
+        }
+    }
+}
@@ -68,4 +68,33 @@ public final class CustomConnectionBuilder implements ConnectionBuilder {
 
         return conn;
     }
+
+    /*
+     * Builders with the same settings are interchangeable, which lets callers reuse
+     * anything that was set up for an equal builder
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CustomConnectionBuilder)) {
+            return false;
+        }
+
+        CustomConnectionBuilder that = (CustomConnectionBuilder) other;
+        return connectionTimeoutMs == that.connectionTimeoutMs
+                && readTimeoutMs == that.readTimeoutMs
+                && connectionBuilder.equals(that.connectionBuilder)
+                && (headers == null ? that.headers == null : headers.equals(that.headers));
+    }
+
+    @Override
+    public int hashCode() {
+        int result = connectionBuilder.hashCode();
+        result = 31 * result + (headers != null ? headers.hashCode() : 0);
+        result = 31 * result + connectionTimeoutMs;
+        result = 31 * result + readTimeoutMs;
+        return result;
+    }
 }
@@ -1,12 +1,86 @@
 package com.rnappauth.utils;
 
+import com.facebook.react.bridge.WritableMap;
+
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
 
 public final class DateUtil {
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+    private static final int DAYS_PER_ERA = 146097;
+    private static final int DAYS_FROM_CIVIL_EPOCH = 719468;
+
+    /*
+     * Years the fast path matches SimpleDateFormat for. It is proleptic Gregorian, while
+     * SimpleDateFormat switches to the Julian calendar before October 1582
+     */
+    private static final long MIN_FAST_YEAR = 1583;
+    private static final long MAX_FAST_YEAR = 9999;
+
+    /*
+     * Format a timestamp as yyyy-MM-dd'T'HH:mm:ss'Z' in UTC
+     */
     public static final String formatTimestamp(Long timestamp) {
+        long millis = timestamp;
+        long days = millis / MILLIS_PER_DAY;
+        if (millis % MILLIS_PER_DAY < 0) {
+            days--;
+        }
+        int secondOfDay = (int) ((millis - days * MILLIS_PER_DAY) / 1000);
+
+        // civil date from days since the epoch, see http://howardhinnant.github.io/date_algorithms.html
+        long z = days + DAYS_FROM_CIVIL_EPOCH;
+        long era = (z >= 0 ? z : z - (DAYS_PER_ERA - 1)) / DAYS_PER_ERA;
+        long dayOfEra = z - era * DAYS_PER_ERA;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * shiftedMonth + 2) / 5 + 1);
+        int month = (int) (shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        if (year < MIN_FAST_YEAR || year > MAX_FAST_YEAR) {
+            return formatWithSimpleDateFormat(timestamp);
+        }
+
+        char[] chars = new char[20];
+        writeDigits(chars, 0, (int) year, 4);
+        chars[4] = '-';
+        writeDigits(chars, 5, month, 2);
+        chars[7] = '-';
+        writeDigits(chars, 8, day, 2);
+        chars[10] = 'T';
+        writeDigits(chars, 11, secondOfDay / 3600, 2);
+        chars[13] = ':';
+        writeDigits(chars, 14, secondOfDay / 60 % 60, 2);
+        chars[16] = ':';
+        writeDigits(chars, 17, secondOfDay % 60, 2);
+        chars[19] = 'Z';
+        return new String(chars);
+    }
+
+    /*
+     * Put a timestamp into a map in the date format selected through configure
+     */
+    public static final void putTimestamp(WritableMap map, String key, Long timestamp) {
+        if (ConversionOptions.useEpochMillisDates()) {
+            map.putDouble(key, timestamp);
+        } else {
+            map.putString(key, formatTimestamp(timestamp));
+        }
+    }
+
+    private static void writeDigits(char[] chars, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static String formatWithSimpleDateFormat(Long timestamp) {
         Date expirationDate = new Date(timestamp);
         SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
         formatter.setTimeZone(TimeZone.getTimeZone("UTC"));
@@ -0,0 +1,64 @@
+package com.rnappauth.utils;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records when each phase of an authorize, refresh or logout call was reached, in milliseconds
+ * since the call started. Times are taken from the monotonic elapsedRealtime clock, so they are
+ * not skewed when the wall clock is changed during a call.
+ */
+public final class FlowTimings {
+
+    public static final String CONFIGURATION_READY = "configurationReady";
+    public static final String BROWSER_LAUNCHED = "browserLaunched";
+    public static final String REDIRECT_RECEIVED = "redirectReceived";
+    public static final String TOKEN_REQUEST_STARTED = "tokenRequestStarted";
+    public static final String TOKEN_REQUEST_COMPLETED = "tokenRequestCompleted";
+    public static final String RESULT_CONVERTED = "resultConverted";
+
+    /*
+     * Where the service configuration came from: passed in by the app, the discovery cache,
+     * or a discovery request
+     */
+    public static final String SOURCE_PROVIDED = "provided";
+    public static final String SOURCE_CACHE = "cache";
+    public static final String SOURCE_NETWORK = "network";
+
+    private final long startedAt = SystemClock.elapsedRealtime();
+    private final Map<String, Long> phases = new LinkedHashMap<>();
+    @Nullable private String configurationSource;
+
+    /*
+     * Record that a phase was reached. Only the first time is kept, so retries don't hide the
+     * time spent before them
+     */
+    public synchronized void mark(@NonNull String phase) {
+        if (!phases.containsKey(phase)) {
+            phases.put(phase, SystemClock.elapsedRealtime() - startedAt);
+        }
+    }
+
+    public synchronized void setConfigurationSource(@NonNull String source) {
+        configurationSource = source;
+    }
+
+    public synchronized WritableMap toMap() {
+        WritableMap map = Arguments.createMap();
+        if (configurationSource != null) {
+            map.putString("configurationSource", configurationSource);
+        }
+        for (Map.Entry<String, Long> phase : phases.entrySet()) {
+            map.putDouble(phase.getKey(), phase.getValue());
+        }
+        return map;
+    }
+}
@@ -0,0 +1,50 @@
+package com.rnappauth.utils;
+
+import android.util.Base64;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.WritableMap;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * Decodes the claims of an ID token. The signature is not checked here, the claims are only
+ * decoded so apps don't have to do it in JS.
+ */
+public final class IdTokenDecoder {
+
+    private static final String TAG = "RNAppAuth";
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private IdTokenDecoder() {
+    }
+
+    /*
+     * Returns the claims of a compact serialized JWT, or null when it can't be decoded
+     */
+    @Nullable
+    public static WritableMap decodeClaims(@Nullable String idToken) {
+        if (idToken == null) {
+            return null;
+        }
+
+        int payloadStart = idToken.indexOf('.') + 1;
+        int payloadEnd = idToken.indexOf('.', payloadStart);
+        if (payloadStart == 0 || payloadEnd == -1) {
+            Log.w(TAG, "Unable to decode ID token claims, the token is not a JWT");
+            return null;
+        }
+
+        try {
+            byte[] payload = Base64.decode(idToken.substring(payloadStart, payloadEnd),
+                    Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP);
+            return MapUtil.convertJsonStringToMap(new String(payload, UTF_8));
+        } catch (IllegalArgumentException | IllegalStateException | IOException e) {
+            Log.w(TAG, "Unable to decode ID token claims", e);
+            return null;
+        }
+    }
+}
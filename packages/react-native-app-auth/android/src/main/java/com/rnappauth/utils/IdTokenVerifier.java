@@ -0,0 +1,213 @@
+package com.rnappauth.utils;
+
+import android.net.Uri;
+import android.util.Base64;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.openid.appauth.connectivity.ConnectionBuilder;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.Signature;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Verifies the signature of RS256 and ES256 signed ID tokens against the keys published at the
+ * given jwks_uri. The claims themselves are validated by AppAuth when the token response is
+ * received, so only the signature is checked here. Callbacks are delivered on the main thread.
+ */
+public final class IdTokenVerifier {
+
+    public interface Callback {
+        void onVerificationCompleted(@Nullable Exception ex);
+    }
+
+    public static final class VerificationException extends Exception {
+        VerificationException(String message) {
+            super(message);
+        }
+
+        VerificationException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int ES256_COORDINATE_LENGTH = 32;
+
+    private final JwksCache jwksCache;
+
+    public IdTokenVerifier(@NonNull JwksCache jwksCache) {
+        this.jwksCache = jwksCache;
+    }
+
+    public void verify(
+            @NonNull final String idToken,
+            @Nullable final Uri jwksUri,
+            @NonNull final ConnectionBuilder connectionBuilder,
+            @NonNull final Callback callback) {
+        final String[] parts = idToken.split("\\.", -1);
+        if (parts.length != 3) {
+            callback.onVerificationCompleted(new VerificationException("ID token is not a signed JWT"));
+            return;
+        }
+
+        final String alg;
+        final String kid;
+        try {
+            JSONObject header = new JSONObject(new String(decode(parts[0]), UTF_8));
+            alg = header.getString("alg");
+            kid = header.has("kid") ? header.getString("kid") : null;
+        } catch (JSONException | IllegalArgumentException e) {
+            callback.onVerificationCompleted(new VerificationException("ID token header is invalid", e));
+            return;
+        }
+
+        final String kty = keyType(alg);
+        if (kty == null) {
+            callback.onVerificationCompleted(
+                    new VerificationException("ID token signing algorithm " + alg + " is not supported"));
+            return;
+        }
+
+        if (jwksUri == null) {
+            callback.onVerificationCompleted(new VerificationException(
+                    "verifyIdTokenSignatures needs the jwks_uri of a discovery document, pass an issuer or "
+                            + "a jwksUri in serviceConfiguration"));
+            return;
+        }
+
+        jwksCache.get(jwksUri, connectionBuilder, false, new JwksCache.Callback() {
+            @Override
+            public void onKeysRetrieved(@Nullable JwksCache.KeySet keys, @Nullable Exception ex) {
+                if (ex != null) {
+                    callback.onVerificationCompleted(new VerificationException("Unable to fetch the JWKS", ex));
+                    return;
+                }
+
+                List<JwksCache.Key> candidates = findKeys(keys, kid, kty);
+                if (!candidates.isEmpty()) {
+                    callback.onVerificationCompleted(verifySignature(parts, alg, candidates));
+                    return;
+                }
+
+                // the issuer may have rotated its keys since they were cached
+                jwksCache.get(jwksUri, connectionBuilder, true, new JwksCache.Callback() {
+                    @Override
+                    public void onKeysRetrieved(@Nullable JwksCache.KeySet refreshedKeys, @Nullable Exception ex) {
+                        if (ex != null) {
+                            callback.onVerificationCompleted(new VerificationException("Unable to fetch the JWKS", ex));
+                            return;
+                        }
+
+                        List<JwksCache.Key> candidates = findKeys(refreshedKeys, kid, kty);
+                        if (candidates.isEmpty()) {
+                            callback.onVerificationCompleted(
+                                    new VerificationException("No key in the JWKS matches the ID token"));
+                            return;
+                        }
+                        callback.onVerificationCompleted(verifySignature(parts, alg, candidates));
+                    }
+                });
+            }
+        });
+    }
+
+    @Nullable
+    private static String keyType(String alg) {
+        if ("RS256".equals(alg)) {
+            return "RSA";
+        }
+        if ("ES256".equals(alg)) {
+            return "EC";
+        }
+        return null;
+    }
+
+    /*
+     * Keys of the right type, limited to the one named by kid when the token has one
+     */
+    private static List<JwksCache.Key> findKeys(@Nullable JwksCache.KeySet keySet, @Nullable String kid, String kty) {
+        List<JwksCache.Key> candidates = new ArrayList<>();
+        if (keySet == null) {
+            return candidates;
+        }
+
+        for (JwksCache.Key key : keySet.keys) {
+            if (key.kty.equals(kty) && (kid == null || kid.equals(key.kid))) {
+                candidates.add(key);
+            }
+        }
+        return candidates;
+    }
+
+    @Nullable
+    private static Exception verifySignature(String[] parts, String alg, List<JwksCache.Key> candidates) {
+        try {
+            byte[] signingInput = (parts[0] + "." + parts[1]).getBytes(UTF_8);
+            byte[] signature = decode(parts[2]);
+            if ("ES256".equals(alg)) {
+                signature = toDer(signature);
+            }
+
+            for (JwksCache.Key key : candidates) {
+                Signature verifier = Signature.getInstance("RS256".equals(alg) ? "SHA256withRSA" : "SHA256withECDSA");
+                verifier.initVerify(key.publicKey);
+                verifier.update(signingInput);
+                if (verifier.verify(signature)) {
+                    return null;
+                }
+            }
+            return new VerificationException("ID token signature is invalid");
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            return new VerificationException("Unable to verify the ID token signature", e);
+        }
+    }
+
+    /*
+     * JWS carries ECDSA signatures as the concatenated r and s values, while Signature expects
+     * a DER encoded sequence of two integers
+     */
+    private static byte[] toDer(byte[] signature) {
+        if (signature.length != 2 * ES256_COORDINATE_LENGTH) {
+            throw new IllegalArgumentException("ES256 signature has an invalid length");
+        }
+
+        byte[] r = toDerInteger(signature, 0);
+        byte[] s = toDerInteger(signature, ES256_COORDINATE_LENGTH);
+
+        ByteArrayOutputStream der = new ByteArrayOutputStream();
+        der.write(0x30);
+        der.write(r.length + s.length);
+        der.write(r, 0, r.length);
+        der.write(s, 0, s.length);
+        return der.toByteArray();
+    }
+
+    private static byte[] toDerInteger(byte[] signature, int offset) {
+        int start = offset;
+        int end = offset + ES256_COORDINATE_LENGTH;
+        while (start < end - 1 && signature[start] == 0) {
+            start++;
+        }
+
+        boolean pad = (signature[start] & 0x80) != 0;
+        int length = end - start + (pad ? 1 : 0);
+        byte[] integer = new byte[2 + length];
+        integer[0] = 0x02;
+        integer[1] = (byte) length;
+        System.arraycopy(signature, start, integer, pad ? 3 : 2, end - start);
+        return integer;
+    }
+
+    private static byte[] decode(String base64Url) {
+        return Base64.decode(base64Url, Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP);
+    }
+}
@@ -0,0 +1,156 @@
+package com.rnappauth.utils;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+import com.rnappauth.AuthMetricsListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Aggregates metrics in memory so JS can read them with getAuthMetrics. Updates only touch
+ * atomic counters, and token request latencies go into fixed histogram buckets, so recording
+ * never blocks. A snapshot taken while requests complete may be off by the requests in flight.
+ */
+public final class InMemoryAuthMetrics implements AuthMetricsListener {
+
+    /*
+     * Upper bounds of the latency buckets in milliseconds. Slower requests fall in a last,
+     * unbounded bucket
+     */
+    private static final long[] LATENCY_BUCKETS_MS = {50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+    private final ConcurrentHashMap<String, TokenEndpointMetrics> tokenEndpoints = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    private static final class TokenEndpointMetrics {
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLongArray latencyCounts = new AtomicLongArray(LATENCY_BUCKETS_MS.length + 1);
+        final AtomicLong latencySum = new AtomicLong();
+        final AtomicLong latencyMax = new AtomicLong();
+
+        void recordLatency(long durationMillis) {
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKETS_MS.length && durationMillis > LATENCY_BUCKETS_MS[bucket]) {
+                bucket++;
+            }
+            latencyCounts.incrementAndGet(bucket);
+            latencySum.addAndGet(durationMillis);
+
+            long max = latencyMax.get();
+            while (durationMillis > max && !latencyMax.compareAndSet(max, durationMillis)) {
+                max = latencyMax.get();
+            }
+        }
+    }
+
+    @Override
+    public void onServiceConfigurationLookup(@NonNull String issuer, boolean cacheHit) {
+        (cacheHit ? cacheHits : cacheMisses).incrementAndGet();
+    }
+
+    @Override
+    public void onTokenRequestCompleted(@NonNull String issuer, @NonNull String grantType, long durationMillis,
+            @Nullable String errorCode) {
+        TokenEndpointMetrics metrics = getTokenEndpointMetrics(issuer);
+        metrics.requests.incrementAndGet();
+        if (errorCode != null) {
+            metrics.failures.incrementAndGet();
+        }
+        metrics.recordLatency(durationMillis);
+    }
+
+    @Override
+    public void onTokenRequestRetried(@NonNull String issuer, int attempt) {
+        getTokenEndpointMetrics(issuer).retries.incrementAndGet();
+    }
+
+    @Override
+    public void onCallFailed(@NonNull String errorCode) {
+        AtomicLong count = errors.get(errorCode);
+        if (count == null) {
+            AtomicLong created = new AtomicLong();
+            count = errors.putIfAbsent(errorCode, created);
+            if (count == null) {
+                count = created;
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    public void reset() {
+        cacheHits.set(0);
+        cacheMisses.set(0);
+        tokenEndpoints.clear();
+        errors.clear();
+    }
+
+    public WritableMap toMap() {
+        WritableMap map = Arguments.createMap();
+
+        WritableMap serviceConfiguration = Arguments.createMap();
+        serviceConfiguration.putDouble("cacheHits", cacheHits.get());
+        serviceConfiguration.putDouble("cacheMisses", cacheMisses.get());
+        map.putMap("serviceConfiguration", serviceConfiguration);
+
+        WritableMap tokenRequests = Arguments.createMap();
+        for (Map.Entry<String, TokenEndpointMetrics> entry : tokenEndpoints.entrySet()) {
+            tokenRequests.putMap(entry.getKey(), tokenEndpointToMap(entry.getValue()));
+        }
+        map.putMap("tokenRequests", tokenRequests);
+
+        WritableMap errorCounts = Arguments.createMap();
+        for (Map.Entry<String, AtomicLong> entry : errors.entrySet()) {
+            errorCounts.putDouble(entry.getKey(), entry.getValue().get());
+        }
+        map.putMap("errors", errorCounts);
+
+        return map;
+    }
+
+    private TokenEndpointMetrics getTokenEndpointMetrics(String issuer) {
+        TokenEndpointMetrics metrics = tokenEndpoints.get(issuer);
+        if (metrics == null) {
+            TokenEndpointMetrics created = new TokenEndpointMetrics();
+            metrics = tokenEndpoints.putIfAbsent(issuer, created);
+            if (metrics == null) {
+                metrics = created;
+            }
+        }
+        return metrics;
+    }
+
+    private static WritableMap tokenEndpointToMap(TokenEndpointMetrics metrics) {
+        WritableMap map = Arguments.createMap();
+        map.putDouble("requests", metrics.requests.get());
+        map.putDouble("failures", metrics.failures.get());
+        map.putDouble("retries", metrics.retries.get());
+
+        WritableMap latency = Arguments.createMap();
+        WritableArray bucketsMillis = Arguments.createArray();
+        for (long bound : LATENCY_BUCKETS_MS) {
+            bucketsMillis.pushDouble(bound);
+        }
+        WritableArray counts = Arguments.createArray();
+        for (int i = 0; i < metrics.latencyCounts.length(); i++) {
+            counts.pushDouble(metrics.latencyCounts.get(i));
+        }
+        latency.putArray("bucketsMillis", bucketsMillis);
+        latency.putArray("counts", counts);
+        latency.putDouble("sumMillis", metrics.latencySum.get());
+        latency.putDouble("maxMillis", metrics.latencyMax.get());
+        map.putMap("latency", latency);
+
+        return map;
+    }
+}
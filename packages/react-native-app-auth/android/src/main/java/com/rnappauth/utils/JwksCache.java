@@ -0,0 +1,212 @@
+package com.rnappauth.utils;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Base64;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.openid.appauth.connectivity.ConnectionBuilder;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECFieldFp;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.EllipticCurve;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing keys published at an issuer's jwks_uri, kept in memory for the freshness lifetime of
+ * the JWKS response. Concurrent requests for the same key set share a single fetch. A refresh can
+ * be forced when a token names a key that is not in the cached set, which happens after the
+ * issuer rotates its keys, but at most once per {@link #MIN_REFRESH_INTERVAL_MS}.
+ * Callbacks are delivered on the main thread.
+ */
+public final class JwksCache {
+
+    public interface Callback {
+        void onKeysRetrieved(@Nullable KeySet keys, @Nullable Exception ex);
+    }
+
+    public static final class Key {
+        @Nullable public final String kid;
+        public final String kty;
+        public final PublicKey publicKey;
+
+        Key(@Nullable String kid, String kty, PublicKey publicKey) {
+            this.kid = kid;
+            this.kty = kty;
+            this.publicKey = publicKey;
+        }
+    }
+
+    public static final class KeySet {
+        public final List<Key> keys;
+        final long fetchedAt;
+        final long expiresAt;
+
+        KeySet(List<Key> keys, long fetchedAt, long expiresAt) {
+            this.keys = keys;
+            this.fetchedAt = fetchedAt;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isStale() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    private static final String TAG = "RNAppAuth";
+
+    /*
+     * Limits how often a token naming an unknown key can trigger a fetch
+     */
+    private static final long MIN_REFRESH_INTERVAL_MS = TimeUnit.SECONDS.toMillis(60);
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    /*
+     * NIST P-256, the only curve used by ES256
+     */
+    private static final ECParameterSpec P_256 = new ECParameterSpec(
+            new EllipticCurve(
+                    new ECFieldFp(new BigInteger("ffffffff00000001000000000000000000000000ffffffffffffffffffffffff", 16)),
+                    new BigInteger("ffffffff00000001000000000000000000000000fffffffffffffffffffffffc", 16),
+                    new BigInteger("5ac635d8aa3a93e7b3ebbd55769886bc651d06b0cc53b0f63bce3c3e27d2604b", 16)),
+            new ECPoint(
+                    new BigInteger("6b17d1f2e12c4247f8bce6e563a440f277037d812deb33a0f4a13945d898c296", 16),
+                    new BigInteger("4fe342e2fe1a7f9b8ee7eb4a7c0f9e162bce33576b315ececbb6406837bf51f5", 16)),
+            new BigInteger("ffffffff00000000ffffffffffffffffbce6faada7179e84f3b9cac2fc632551", 16),
+            1);
+
+    private final ConcurrentHashMap<String, KeySet> keySets = new ConcurrentHashMap<>();
+    private final SingleFlight<String, Callback> pendingFetches = new SingleFlight<>();
+
+    /*
+     * Get the keys published at jwksUri, fetching them when nothing fresh is cached or when
+     * forceRefresh is set and the cached keys are old enough to be refreshed
+     */
+    public void get(@NonNull final Uri jwksUri, @NonNull final ConnectionBuilder connectionBuilder,
+            boolean forceRefresh, @NonNull Callback callback) {
+        final String key = jwksUri.toString();
+        KeySet cached = keySets.get(key);
+        if (cached != null && !cached.isStale()
+                && (!forceRefresh || System.currentTimeMillis() - cached.fetchedAt < MIN_REFRESH_INTERVAL_MS)) {
+            callback.onKeysRetrieved(cached, null);
+            return;
+        }
+
+        if (!pendingFetches.join(key, callback)) {
+            return;
+        }
+
+        NetworkExecutor.get().execute(new Runnable() {
+            @Override
+            public void run() {
+                KeySet keySet = null;
+                Exception exception = null;
+                try {
+                    keySet = fetch(jwksUri, connectionBuilder);
+                    keySets.put(key, keySet);
+                } catch (IOException | JSONException | RuntimeException e) {
+                    // every failure has to reach the callbacks, or callers joined to this fetch wait forever
+                    exception = e;
+                }
+
+                final KeySet result = keySet;
+                final Exception error = exception;
+                MAIN_HANDLER.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (Callback waiting : pendingFetches.complete(key)) {
+                            waiting.onKeysRetrieved(result, error);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private static KeySet fetch(Uri jwksUri, ConnectionBuilder connectionBuilder) throws IOException, JSONException {
+        HttpURLConnection conn = connectionBuilder.openConnection(jwksUri);
+        conn.setRequestMethod("GET");
+        conn.setDoInput(true);
+        conn.connect();
+
+        long now = System.currentTimeMillis();
+        int status = conn.getResponseCode();
+        if (status < HttpURLConnection.HTTP_OK || status >= HttpURLConnection.HTTP_MULT_CHOICE) {
+            // drain the error body so the connection can be reused
+            ServiceConfigurationFetcher.readStream(conn.getErrorStream());
+            throw new IOException("Unexpected HTTP status " + status + " fetching " + jwksUri);
+        }
+
+        JSONArray jwks = new JSONObject(ServiceConfigurationFetcher.readStream(conn.getInputStream()))
+                .getJSONArray("keys");
+        List<Key> keys = new ArrayList<>();
+        for (int i = 0; i < jwks.length(); i++) {
+            Key key = parseKey(jwks.getJSONObject(i));
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+
+        long expiresAt = ServiceConfigurationFetcher.resolveExpiry(
+                conn.getHeaderField("Cache-Control"), conn.getExpiration(), now);
+        return new KeySet(Collections.unmodifiableList(keys), now, expiresAt);
+    }
+
+    /*
+     * Read a signature verification key, skipping keys for other uses or unsupported types
+     */
+    @Nullable
+    private static Key parseKey(JSONObject jwk) throws JSONException {
+        String use = jwk.optString("use", "sig");
+        if (!"sig".equals(use)) {
+            return null;
+        }
+
+        String kid = jwk.has("kid") ? jwk.getString("kid") : null;
+        String kty = jwk.getString("kty");
+        try {
+            if ("RSA".equals(kty)) {
+                RSAPublicKeySpec spec = new RSAPublicKeySpec(
+                        decodeUnsigned(jwk.getString("n")),
+                        decodeUnsigned(jwk.getString("e")));
+                return new Key(kid, kty, KeyFactory.getInstance("RSA").generatePublic(spec));
+            }
+            if ("EC".equals(kty) && "P-256".equals(jwk.optString("crv"))) {
+                ECPublicKeySpec spec = new ECPublicKeySpec(
+                        new ECPoint(decodeUnsigned(jwk.getString("x")), decodeUnsigned(jwk.getString("y"))),
+                        P_256);
+                return new Key(kid, kty, KeyFactory.getInstance("EC").generatePublic(spec));
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            Log.w(TAG, "Skipping unusable JWK " + kid, e);
+        }
+
+        return null;
+    }
+
+    private static BigInteger decodeUnsigned(String base64Url) {
+        return new BigInteger(1, Base64.decode(base64Url, Base64.URL_SAFE | Base64.NO_PADDING | Base64.NO_WRAP));
+    }
+}
@@ -1,5 +1,7 @@
 package com.rnappauth.utils;
 
+import android.util.JsonReader;
+import android.util.JsonToken;
 import android.util.Log;
 
 import androidx.annotation.Nullable;
@@ -9,19 +11,19 @@ import com.facebook.react.bridge.ReadableMap;
 import com.facebook.react.bridge.ReadableMapKeySetIterator;
 import com.facebook.react.bridge.WritableArray;
 import com.facebook.react.bridge.WritableMap;
-import com.facebook.react.bridge.WritableNativeArray;
-import com.facebook.react.bridge.WritableNativeMap;
-
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.Map;
 
 public class MapUtil {
 
+    /*
+     * Largest integer a JS number represents exactly, Number.MAX_SAFE_INTEGER
+     */
+    private static final long MAX_SAFE_INTEGER = 9007199254740991L;
+
     public static HashMap<String, String> readableMapToHashMap(@Nullable ReadableMap readableMap) {
 
         HashMap<String, String> hashMap = new HashMap<>();
@@ -40,83 +42,186 @@ public class MapUtil {
         WritableMap additionalParametersMap = Arguments.createMap();
 
         if (!additionalParameters.isEmpty()) {
+            boolean expandJson = ConversionOptions.shouldExpandJsonParameters();
 
-            Iterator<String> iterator = additionalParameters.keySet().iterator();
-
-            while(iterator.hasNext()) {
-                String key = iterator.next();
-                String value = additionalParameters.get(key);
+            for (Map.Entry<String, String> entry : additionalParameters.entrySet()) {
+                String key = entry.getKey();
+                String value = entry.getValue();
                 // Try to parse to JSON
-                try {
-                    JSONObject jsonObject = new JSONObject(value);
-                    WritableMap json = convertJsonToMap(jsonObject);
-                    additionalParametersMap.putMap(key, json);
-                    continue;
-                } catch (JSONException ignored) {
-
+                if (expandJson && looksLikeJsonObject(value)) {
+                    try {
+                        WritableMap json = convertJsonStringToMap(value);
+                        additionalParametersMap.putMap(key, json);
+                        continue;
+                    } catch (IOException | IllegalStateException | NumberFormatException ignored) {
+
+                    }
                 }
-                additionalParametersMap.putString(key, additionalParameters.get(key));
+                additionalParametersMap.putString(key, value);
             }
         }
 
         return additionalParametersMap;
     }
 
-    private static WritableMap convertJsonToMap(JSONObject jsonObject) throws JSONException {
-        WritableMap map = new WritableNativeMap();
-
-        Iterator<String> iterator = jsonObject.keys();
-        while (iterator.hasNext()) {
-            String key = iterator.next();
-            Object value = jsonObject.get(key);
-            if (value instanceof JSONObject) {
-                map.putMap(key, convertJsonToMap((JSONObject) value));
-            } else if (value instanceof JSONArray) {
-                map.putArray(key, convertJsonToArray((JSONArray) value));
-            } else if (value instanceof Boolean) {
-                map.putBoolean(key, (Boolean) value);
-            } else if (value instanceof Integer) {
-                map.putInt(key, (Integer) value);
-            } else if (value instanceof Double) {
-                map.putDouble(key, (Double) value);
-            } else if (value instanceof Float) {
-                map.putDouble(key, ((Float) value).doubleValue());
-            } else if (value instanceof Long) {
-                map.putDouble(key, ((Long) value).doubleValue());
-            } else if (value instanceof String) {
-                map.putString(key, (String) value);
-            } else {
-                map.putString(key, value.toString());
+    /*
+     * Cheap check run before parsing, so plain values never pay for a thrown JSONException
+     */
+    static boolean looksLikeJsonObject(@Nullable String value) {
+        if (value == null) {
+            return false;
+        }
+
+        // an object can only start with a brace once leading whitespace is skipped
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c == '{';
             }
         }
+        return false;
+    }
+
+    /*
+     * Convert a JSON object in a single pass, writing values straight into the map instead of
+     * building a JSONObject first. Parsing is lenient to accept the same input as JSONObject
+     */
+    public static WritableMap convertJsonStringToMap(String json) throws IOException {
+        JsonReader reader = new JsonReader(new StringReader(json));
+        reader.setLenient(true);
+        try {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                throw new IOException("Expected a JSON object but was " + reader.peek());
+            }
+            return readMap(reader);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static WritableMap readMap(JsonReader reader) throws IOException {
+        WritableMap map = Arguments.createMap();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String key = reader.nextName();
+            switch (reader.peek()) {
+                case NULL:
+                    reader.nextNull();
+                    map.putNull(key);
+                    break;
+                case BEGIN_OBJECT:
+                    map.putMap(key, readMap(reader));
+                    break;
+                case BEGIN_ARRAY:
+                    map.putArray(key, readArray(reader));
+                    break;
+                case BOOLEAN:
+                    map.putBoolean(key, reader.nextBoolean());
+                    break;
+                case NUMBER:
+                    String number = reader.nextString();
+                    Integer intValue = parseInt(number);
+                    if (intValue != null) {
+                        map.putInt(key, intValue);
+                    } else if (keepAsString(number)) {
+                        map.putString(key, number);
+                    } else {
+                        map.putDouble(key, Double.parseDouble(number));
+                    }
+                    break;
+                default:
+                    map.putString(key, reader.nextString());
+                    break;
+            }
+        }
+        reader.endObject();
         return map;
     }
 
-    private static WritableArray convertJsonToArray(JSONArray jsonArray) throws JSONException {
-        WritableArray array = new WritableNativeArray();
-
-        for (int i = 0; i < jsonArray.length(); i++) {
-            Object value = jsonArray.get(i);
-            if (value instanceof JSONObject) {
-                array.pushMap(convertJsonToMap((JSONObject) value));
-            } else if (value instanceof JSONArray) {
-                array.pushArray(convertJsonToArray((JSONArray) value));
-            } else if (value instanceof Boolean) {
-                array.pushBoolean((Boolean) value);
-            } else if (value instanceof Integer) {
-                array.pushInt((Integer) value);
-            } else if (value instanceof Double) {
-                array.pushDouble((Double) value);
-            } else if (value instanceof Float) {
-                array.pushDouble(((Float) value).doubleValue());
-            } else if (value instanceof Long) {
-                array.pushDouble(((Long) value).doubleValue());
-            } else if (value instanceof String) {
-                array.pushString((String) value);
-            } else {
-                array.pushString(value.toString());
+    private static WritableArray readArray(JsonReader reader) throws IOException {
+        WritableArray array = Arguments.createArray();
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            switch (reader.peek()) {
+                case NULL:
+                    reader.nextNull();
+                    array.pushNull();
+                    break;
+                case BEGIN_OBJECT:
+                    array.pushMap(readMap(reader));
+                    break;
+                case BEGIN_ARRAY:
+                    array.pushArray(readArray(reader));
+                    break;
+                case BOOLEAN:
+                    array.pushBoolean(reader.nextBoolean());
+                    break;
+                case NUMBER:
+                    String number = reader.nextString();
+                    Integer intValue = parseInt(number);
+                    if (intValue != null) {
+                        array.pushInt(intValue);
+                    } else if (keepAsString(number)) {
+                        array.pushString(number);
+                    } else {
+                        array.pushDouble(Double.parseDouble(number));
+                    }
+                    break;
+                default:
+                    array.pushString(reader.nextString());
+                    break;
             }
         }
+        reader.endArray();
         return array;
     }
+
+    /*
+     * Integral numbers that fit in an int are sent as ints, like JSONObject does. Anything else
+     * is sent as a double, parsed from the original text rather than from an intermediate long
+     */
+    @Nullable
+    private static Integer parseInt(String number) {
+        if (!isIntegerLiteral(number)) {
+            return null;
+        }
+
+        try {
+            return Integer.parseInt(number);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /*
+     * Whether an integer that a double cannot represent exactly should be sent as its digits
+     */
+    private static boolean keepAsString(String number) {
+        if (!ConversionOptions.useStringsForLargeIntegers() || !isIntegerLiteral(number)) {
+            return false;
+        }
+
+        try {
+            return !isSafeInteger(Long.parseLong(number));
+        } catch (NumberFormatException e) {
+            // outside the range of a long
+            return true;
+        }
+    }
+
+    private static boolean isIntegerLiteral(String number) {
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if ((c < '0' || c > '9') && !(i == 0 && c == '-' && number.length() > 1)) {
+                return false;
+            }
+        }
+        return number.length() > 0;
+    }
+
+    private static boolean isSafeInteger(long value) {
+        return value >= -MAX_SAFE_INTEGER && value <= MAX_SAFE_INTEGER;
+    }
 }
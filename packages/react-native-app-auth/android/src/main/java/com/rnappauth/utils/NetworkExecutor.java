@@ -0,0 +1,72 @@
+package com.rnappauth.utils;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the discovery, token, registration and JWKS requests of the module. AppAuth runs its
+ * requests on the process wide serial AsyncTask executor, where requests to unrelated servers,
+ * and those of any other library using AsyncTask, wait for each other. Here up to concurrency
+ * requests run at the same time, and the others wait in order. Idle threads are released.
+ */
+public final class NetworkExecutor {
+
+    public static final int DEFAULT_CONCURRENCY = 4;
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static final ThreadPoolExecutor EXECUTOR = new ThreadPoolExecutor(
+            DEFAULT_CONCURRENCY,
+            DEFAULT_CONCURRENCY,
+            KEEP_ALIVE_SECONDS,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(),
+            new ThreadFactory() {
+                private final AtomicInteger count = new AtomicInteger();
+
+                @Override
+                public Thread newThread(@NonNull Runnable runnable) {
+                    return new Thread(runnable, "RNAppAuth-network-" + count.incrementAndGet());
+                }
+            });
+
+    static {
+        EXECUTOR.allowCoreThreadTimeOut(true);
+    }
+
+    private NetworkExecutor() {
+    }
+
+    public static Executor get() {
+        return EXECUTOR;
+    }
+
+    public static int getConcurrency() {
+        return EXECUTOR.getMaximumPoolSize();
+    }
+
+    /*
+     * Change how many requests may run at the same time. Requests already running are not
+     * interrupted when it is lowered
+     */
+    public static synchronized void setConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be at least 1");
+        }
+
+        // the core size may never exceed the maximum size, so the order depends on the direction
+        if (concurrency > EXECUTOR.getMaximumPoolSize()) {
+            EXECUTOR.setMaximumPoolSize(concurrency);
+            EXECUTOR.setCorePoolSize(concurrency);
+        } else {
+            EXECUTOR.setCorePoolSize(concurrency);
+            EXECUTOR.setMaximumPoolSize(concurrency);
+        }
+    }
+}
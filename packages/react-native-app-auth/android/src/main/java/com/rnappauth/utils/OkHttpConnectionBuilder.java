@@ -0,0 +1,90 @@
+package com.rnappauth.utils;
+
+import android.net.Uri;
+
+import androidx.annotation.NonNull;
+
+import net.openid.appauth.Preconditions;
+import net.openid.appauth.connectivity.ConnectionBuilder;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import javax.net.ssl.X509TrustManager;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+
+/**
+ * A {@link ConnectionBuilder} whose connections are executed by a shared {@link OkHttpClient}.
+ * Unlike the platform {@link HttpURLConnection}, which only speaks HTTP/1.1, the client negotiates
+ * HTTP/2 where the server supports it, and keeps connections and TLS sessions alive between calls,
+ * so discovery, token exchange and refresh requests to the same host skip the TCP and TLS
+ * handshakes after the first one.
+ */
+public final class OkHttpConnectionBuilder implements ConnectionBuilder {
+
+    private static final int CONNECTION_TIMEOUT_MS = (int) TimeUnit.SECONDS.toMillis(15);
+    private static final int READ_TIMEOUT_MS = (int) TimeUnit.SECONDS.toMillis(10);
+
+    /*
+     * Connections are kept around long enough to cover an authorize followed by a token exchange,
+     * and a few refreshes scheduled close together
+     */
+    private static final int MAX_IDLE_CONNECTIONS = 5;
+    private static final long KEEP_ALIVE_DURATION_MINUTES = 5;
+
+    private static final String HTTP = "http";
+    private static final String HTTPS = "https";
+
+    private static final OkHttpClient CLIENT = new OkHttpClient.Builder()
+            .connectionPool(new ConnectionPool(MAX_IDLE_CONNECTIONS, KEEP_ALIVE_DURATION_MINUTES, TimeUnit.MINUTES))
+            .followRedirects(false)
+            .followSslRedirects(false)
+            .build();
+
+    public static final OkHttpConnectionBuilder INSTANCE = new OkHttpConnectionBuilder(CLIENT, false);
+
+    /*
+     * Shares the connection pool with INSTANCE. OkHttp only reuses a connection for requests with
+     * the same TLS settings, so trusting connections are never handed to secure requests.
+     */
+    public static final OkHttpConnectionBuilder UNSAFE_INSTANCE = new OkHttpConnectionBuilder(
+            UnsafeConnectionBuilder.TRUSTING_CONTEXT != null
+                    ? CLIENT.newBuilder()
+                            .sslSocketFactory(UnsafeConnectionBuilder.TRUSTING_CONTEXT.getSocketFactory(),
+                                    (X509TrustManager) UnsafeConnectionBuilder.ANY_CERT_MANAGER[0])
+                            .hostnameVerifier(UnsafeConnectionBuilder.ANY_HOSTNAME_VERIFIER)
+                            .build()
+                    : CLIENT,
+            true);
+
+    private final OkHttpClient client;
+    private final boolean allowInsecureConnections;
+
+    private OkHttpConnectionBuilder(OkHttpClient client, boolean allowInsecureConnections) {
+        this.client = client;
+        this.allowInsecureConnections = allowInsecureConnections;
+    }
+
+    @NonNull
+    @Override
+    public HttpURLConnection openConnection(@NonNull Uri uri) throws IOException {
+        Preconditions.checkNotNull(uri, "url must not be null");
+        if (allowInsecureConnections) {
+            Preconditions.checkArgument(HTTP.equals(uri.getScheme()) || HTTPS.equals(uri.getScheme()),
+                    "scheme or uri must be http or https");
+        } else {
+            Preconditions.checkArgument(HTTPS.equals(uri.getScheme()),
+                    "only https connections are permitted");
+        }
+
+        HttpURLConnection conn = new OkHttpURLConnection(new URL(uri.toString()), client);
+        conn.setConnectTimeout(CONNECTION_TIMEOUT_MS);
+        conn.setReadTimeout(READ_TIMEOUT_MS);
+        conn.setInstanceFollowRedirects(false);
+        return conn;
+    }
+}
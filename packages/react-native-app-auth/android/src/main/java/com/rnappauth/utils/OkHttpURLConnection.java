@@ -0,0 +1,286 @@
+package com.rnappauth.utils;
+
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ProtocolException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Call;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Adapts an {@link OkHttpClient} call to the parts of {@link HttpURLConnection} used by AppAuth
+ * and this module: request headers, a request body written to {@link #getOutputStream()}, and
+ * the status, headers and body of the response. The request body is buffered, and the call is
+ * executed when the response is first read.
+ */
+final class OkHttpURLConnection extends HttpURLConnection {
+
+    private final OkHttpClient client;
+    private final Headers.Builder requestHeaders = new Headers.Builder();
+
+    @Nullable private ByteArrayOutputStream requestBody;
+    @Nullable private Call call;
+    @Nullable private Response response;
+    @Nullable private IOException failure;
+
+    OkHttpURLConnection(URL url, OkHttpClient client) {
+        super(url);
+        this.client = client;
+    }
+
+    @Override
+    public void connect() {
+        // the request is sent once the body is complete, when the response is first read
+        connected = true;
+    }
+
+    @Override
+    public void disconnect() {
+        if (call != null) {
+            call.cancel();
+        }
+        if (response != null && response.body() != null) {
+            response.body().close();
+        }
+    }
+
+    @Override
+    public boolean usingProxy() {
+        return false;
+    }
+
+    @Override
+    public void setRequestProperty(String key, String value) {
+        checkNotExecuted();
+        if (key == null) {
+            throw new NullPointerException("key is null");
+        }
+        if (value == null) {
+            requestHeaders.removeAll(key);
+        } else {
+            requestHeaders.set(key, value);
+        }
+    }
+
+    @Override
+    public void addRequestProperty(String key, String value) {
+        checkNotExecuted();
+        if (key == null) {
+            throw new NullPointerException("key is null");
+        }
+        if (value != null) {
+            requestHeaders.add(key, value);
+        }
+    }
+
+    @Override
+    public String getRequestProperty(String key) {
+        return key != null ? requestHeaders.get(key) : null;
+    }
+
+    @Override
+    public Map<String, List<String>> getRequestProperties() {
+        return requestHeaders.build().toMultimap();
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+        if (response != null || failure != null) {
+            throw new ProtocolException("cannot write request body after response has been read");
+        }
+        if (!getDoOutput()) {
+            throw new ProtocolException("cannot write request body when doOutput is false");
+        }
+        if (requestBody == null) {
+            requestBody = new ByteArrayOutputStream();
+        }
+        return requestBody;
+    }
+
+    @Override
+    public int getResponseCode() throws IOException {
+        return getResponse().code();
+    }
+
+    @Override
+    public String getResponseMessage() throws IOException {
+        return getResponse().message();
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        Response response = getResponse();
+        if (response.code() >= HTTP_BAD_REQUEST) {
+            throw new FileNotFoundException(url.toString());
+        }
+        return body(response);
+    }
+
+    @Override
+    public InputStream getErrorStream() {
+        if (response == null || response.code() < HTTP_BAD_REQUEST) {
+            return null;
+        }
+        return body(response);
+    }
+
+    @Override
+    public String getHeaderField(String name) {
+        Response response = getResponseOrNull();
+        if (response == null) {
+            return null;
+        }
+        return name != null ? response.header(name) : statusLine(response);
+    }
+
+    @Override
+    public String getHeaderFieldKey(int n) {
+        Response response = getResponseOrNull();
+        if (response == null || n <= 0 || n > response.headers().size()) {
+            return null;
+        }
+        return response.headers().name(n - 1);
+    }
+
+    @Override
+    public String getHeaderField(int n) {
+        Response response = getResponseOrNull();
+        if (response == null || n < 0 || n > response.headers().size()) {
+            return null;
+        }
+        return n == 0 ? statusLine(response) : response.headers().value(n - 1);
+    }
+
+    @Override
+    public Map<String, List<String>> getHeaderFields() {
+        Response response = getResponseOrNull();
+        if (response == null) {
+            return Collections.emptyMap();
+        }
+
+        Map<String, List<String>> fields = new LinkedHashMap<>();
+        fields.put(null, Collections.singletonList(statusLine(response)));
+        Headers headers = response.headers();
+        for (int i = 0; i < headers.size(); i++) {
+            List<String> values = fields.get(headers.name(i));
+            if (values == null) {
+                values = new ArrayList<>();
+                fields.put(headers.name(i), values);
+            }
+            values.add(headers.value(i));
+        }
+        return Collections.unmodifiableMap(fields);
+    }
+
+    private Response getResponse() throws IOException {
+        if (response != null) {
+            return response;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        connected = true;
+        try {
+            call = buildClient().newCall(buildRequest());
+            response = call.execute();
+            responseCode = response.code();
+            responseMessage = response.message();
+            return response;
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    /*
+     * The header accessors of HttpURLConnection cannot throw, so they report a failed request as
+     * a missing header
+     */
+    @Nullable
+    private Response getResponseOrNull() {
+        try {
+            return getResponse();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /*
+     * A client with the timeouts and redirect policy of this connection, sharing the connection
+     * pool of the builder's client
+     */
+    private OkHttpClient buildClient() {
+        return client.newBuilder()
+                .connectTimeout(getConnectTimeout(), TimeUnit.MILLISECONDS)
+                .readTimeout(getReadTimeout(), TimeUnit.MILLISECONDS)
+                .writeTimeout(getReadTimeout(), TimeUnit.MILLISECONDS)
+                .followRedirects(getInstanceFollowRedirects())
+                .followSslRedirects(getInstanceFollowRedirects())
+                .build();
+    }
+
+    /*
+     * RequestBody.create(MediaType, byte[]) is deprecated in OkHttp 4 in favour of the overload
+     * taking the bytes first, which OkHttp 3 does not have. React Native 0.63 still ships OkHttp 3,
+     * so the call sticks to the overload both versions provide.
+     */
+    @SuppressWarnings("deprecation")
+    private Request buildRequest() {
+        RequestBody body = null;
+        String requestMethod = method;
+        if (requestBody != null) {
+            String contentType = requestHeaders.get("Content-Type");
+            body = RequestBody.create(
+                    contentType != null ? MediaType.parse(contentType) : null,
+                    requestBody.toByteArray());
+            // like HttpURLConnection, writing a body turns a GET into a POST
+            if ("GET".equals(requestMethod)) {
+                requestMethod = "POST";
+            }
+        } else if ("POST".equals(requestMethod) || "PUT".equals(requestMethod)) {
+            body = RequestBody.create((MediaType) null, new byte[0]);
+        }
+
+        return new Request.Builder()
+                .url(url.toString())
+                .headers(requestHeaders.build())
+                .method(requestMethod, body)
+                .build();
+    }
+
+    private void checkNotExecuted() {
+        if (response != null || failure != null) {
+            throw new IllegalStateException("Already connected");
+        }
+    }
+
+    private static InputStream body(Response response) {
+        ResponseBody body = response.body();
+        return body != null ? body.byteStream() : new ByteArrayInputStream(new byte[0]);
+    }
+
+    private static String statusLine(Response response) {
+        return "HTTP/1.1 " + response.code() + " " + response.message();
+    }
+}
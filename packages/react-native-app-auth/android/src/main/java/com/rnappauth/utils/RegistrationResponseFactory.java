@@ -16,7 +16,7 @@ public final class RegistrationResponseFactory {
         map.putMap("additionalParameters", MapUtil.createAdditionalParametersMap(response.additionalParameters));
 
         if (response.clientIdIssuedAt != null) {
-            map.putString("clientIdIssuedAt", DateUtil.formatTimestamp(response.clientIdIssuedAt));
+            DateUtil.putTimestamp(map, "clientIdIssuedAt", response.clientIdIssuedAt);
         }
 
         if (response.clientSecret != null) {
@@ -24,7 +24,7 @@ public final class RegistrationResponseFactory {
         }
 
         if (response.clientSecretExpiresAt != null) {
-            map.putString("clientSecretExpiresAt", DateUtil.formatTimestamp(response.clientSecretExpiresAt));
+            DateUtil.putTimestamp(map, "clientSecretExpiresAt", response.clientSecretExpiresAt);
         }
 
         if (response.registrationAccessToken != null) {
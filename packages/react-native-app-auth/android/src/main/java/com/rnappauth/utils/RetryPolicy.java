@@ -0,0 +1,138 @@
+package com.rnappauth.utils;
+
+import androidx.annotation.Nullable;
+
+import net.openid.appauth.AuthorizationException;
+
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.Random;
+
+/**
+ * How often and how soon a failed request is retried. Attempts are spaced with exponential
+ * backoff and full jitter: the delay before attempt n + 1 is a random value between zero and
+ * initialDelayMillis * 2^(n - 1), capped at maxDelayMillis, so clients that failed together
+ * don't retry together.
+ *
+ * Only transient failures are retried. A request that may have reached the server, like one that
+ * timed out waiting for the response, is only retried when repeating it is harmless, which is
+ * never the case for an authorization code exchange since codes can only be used once.
+ */
+public final class RetryPolicy {
+
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, false);
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_INITIAL_DELAY_MS = 250;
+    public static final long DEFAULT_MAX_DELAY_MS = 4000;
+
+    private static final Random RANDOM = new Random();
+
+    public final int maxAttempts;
+    public final long initialDelayMillis;
+    public final long maxDelayMillis;
+
+    /*
+     * Whether a refresh that may have reached the server can be sent again. Providers that rotate
+     * refresh tokens reject the repeated request once the first one was processed
+     */
+    public final boolean idempotentRefresh;
+
+    public RetryPolicy(int maxAttempts, long initialDelayMillis, long maxDelayMillis, boolean idempotentRefresh) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        if (initialDelayMillis < 0 || maxDelayMillis < initialDelayMillis) {
+            throw new IllegalArgumentException("delays must satisfy 0 <= initialDelayMillis <= maxDelayMillis");
+        }
+
+        this.maxAttempts = maxAttempts;
+        this.initialDelayMillis = initialDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.idempotentRefresh = idempotentRefresh;
+    }
+
+    public boolean canRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    /*
+     * Delay before the attempt following the given one, which counts from 1
+     */
+    public long getDelayMillis(int attempt) {
+        long ceiling = getDelayCeilingMillis(attempt);
+        return ceiling > 0 ? (long) (RANDOM.nextDouble() * (ceiling + 1)) : 0;
+    }
+
+    /*
+     * The longest a request can spend waiting between its attempts
+     */
+    public long getMaxTotalDelayMillis() {
+        long total = 0;
+        for (int attempt = 1; canRetry(attempt); attempt++) {
+            total += getDelayCeilingMillis(attempt);
+        }
+        return total;
+    }
+
+    private long getDelayCeilingMillis(int attempt) {
+        long ceiling = initialDelayMillis;
+        for (int i = 1; i < attempt && ceiling < maxDelayMillis; i++) {
+            ceiling *= 2;
+        }
+        return Math.min(ceiling, maxDelayMillis);
+    }
+
+    /*
+     * Gateway and availability errors are worth retrying, other statuses will fail the same way
+     */
+    public static boolean isRetryableStatus(int status) {
+        return status == HttpURLConnection.HTTP_CLIENT_TIMEOUT
+                || status == 429
+                || status == HttpURLConnection.HTTP_INTERNAL_ERROR
+                || status == HttpURLConnection.HTTP_BAD_GATEWAY
+                || status == HttpURLConnection.HTTP_UNAVAILABLE
+                || status == HttpURLConnection.HTTP_GATEWAY_TIMEOUT;
+    }
+
+    /*
+     * Whether a failed token request is worth retrying. Failures to reach the server are always
+     * retryable, other network errors and server errors only when the request can be repeated.
+     * Gateways often answer with an HTML error page during outages, which AppAuth reports as a
+     * deserialization error, so those count as server errors
+     */
+    public static boolean isRetryable(@Nullable AuthorizationException ex, boolean repeatable) {
+        if (ex == null) {
+            return false;
+        }
+
+        if (ex.type == AuthorizationException.TYPE_GENERAL_ERROR
+                && ex.code == AuthorizationException.GeneralErrors.NETWORK_ERROR.code) {
+            return isConnectFailure(ex.getCause()) || repeatable;
+        }
+
+        if (ex.type == AuthorizationException.TYPE_GENERAL_ERROR
+                && ex.code == AuthorizationException.GeneralErrors.JSON_DESERIALIZATION_ERROR.code) {
+            return repeatable;
+        }
+
+        if (ex.type == AuthorizationException.TYPE_OAUTH_TOKEN_ERROR) {
+            // the server reports it didn't handle the request, see RFC 6749 section 4.1.2.1
+            return "temporarily_unavailable".equals(ex.error)
+                    || (repeatable && "server_error".equals(ex.error));
+        }
+
+        return false;
+    }
+
+    /*
+     * Failures that happen before the request is sent
+     */
+    private static boolean isConnectFailure(@Nullable Throwable cause) {
+        return cause instanceof UnknownHostException
+                || cause instanceof ConnectException
+                || cause instanceof NoRouteToHostException;
+    }
+}
@@ -0,0 +1,158 @@
+package com.rnappauth.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.openid.appauth.AuthorizationServiceConfiguration;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Issuer keyed cache of discovery documents. Entries fetched from the network are persisted to
+ * disk so a cold start can reuse them, and are considered stale once their HTTP freshness
+ * lifetime has passed. Persisted entries are only read back when an issuer is first requested.
+ */
+public final class ServiceConfigurationCache {
+
+    private static final String TAG = "RNAppAuth";
+    private static final String PREFERENCES_NAME = "com.rnappauth.ServiceConfigurationCache";
+
+    private static final String KEY_CONFIGURATION = "configuration";
+    private static final String KEY_EXPIRES_AT = "expiresAt";
+    private static final String KEY_ETAG = "etag";
+    private static final String KEY_LAST_MODIFIED = "lastModified";
+
+    public static final class Entry {
+        public final AuthorizationServiceConfiguration configuration;
+        public final long expiresAt;
+        @Nullable final String etag;
+        @Nullable final String lastModified;
+        final boolean persistent;
+
+        Entry(AuthorizationServiceConfiguration configuration, long expiresAt, boolean persistent) {
+            this(configuration, expiresAt, null, null, persistent);
+        }
+
+        Entry(AuthorizationServiceConfiguration configuration, long expiresAt, @Nullable String etag,
+                @Nullable String lastModified, boolean persistent) {
+            this.configuration = configuration;
+            this.expiresAt = expiresAt;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.persistent = persistent;
+        }
+
+        public boolean isStale() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    private final Context context;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private SharedPreferences preferences;
+
+    public ServiceConfigurationCache(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public boolean contains(@Nullable String issuer) {
+        return get(issuer) != null;
+    }
+
+    @Nullable
+    public Entry get(@Nullable String issuer) {
+        if (issuer == null) {
+            return null;
+        }
+
+        Entry entry = entries.get(issuer);
+        if (entry == null) {
+            entry = load(issuer);
+            if (entry != null) {
+                Entry existing = entries.putIfAbsent(issuer, entry);
+                if (existing != null) {
+                    entry = existing;
+                }
+            }
+        }
+
+        return entry;
+    }
+
+    /*
+     * Store a configuration provided by the app. It never expires and is not written to disk, so
+     * a changed serviceConfiguration in a newer app version is never shadowed by a stale copy
+     */
+    public void put(@NonNull String issuer, @NonNull AuthorizationServiceConfiguration configuration) {
+        entries.put(issuer, new Entry(configuration, Long.MAX_VALUE, false));
+    }
+
+    /*
+     * Store a configuration retrieved from the issuer's discovery endpoint
+     */
+    public void put(@NonNull String issuer, @NonNull Entry entry) {
+        entries.put(issuer, entry);
+
+        SharedPreferences.Editor editor = getPreferences().edit();
+        if (entry.persistent) {
+            try {
+                editor.putString(issuer, serialize(entry));
+            } catch (JSONException e) {
+                Log.w(TAG, "Unable to serialize service configuration for " + issuer, e);
+                editor.remove(issuer);
+            }
+        } else {
+            editor.remove(issuer);
+        }
+        editor.apply();
+    }
+
+    @Nullable
+    private Entry load(@NonNull String issuer) {
+        String serialized = getPreferences().getString(issuer, null);
+        if (serialized == null) {
+            return null;
+        }
+
+        try {
+            JSONObject json = new JSONObject(serialized);
+            return new Entry(
+                    AuthorizationServiceConfiguration.fromJson(json.getJSONObject(KEY_CONFIGURATION)),
+                    json.getLong(KEY_EXPIRES_AT),
+                    json.has(KEY_ETAG) ? json.getString(KEY_ETAG) : null,
+                    json.has(KEY_LAST_MODIFIED) ? json.getString(KEY_LAST_MODIFIED) : null,
+                    true);
+        } catch (JSONException e) {
+            Log.w(TAG, "Discarding unreadable cached service configuration for " + issuer, e);
+            getPreferences().edit().remove(issuer).apply();
+            return null;
+        }
+    }
+
+    private static String serialize(Entry entry) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put(KEY_CONFIGURATION, entry.configuration.toJson());
+        json.put(KEY_EXPIRES_AT, entry.expiresAt);
+        if (entry.etag != null) {
+            json.put(KEY_ETAG, entry.etag);
+        }
+        if (entry.lastModified != null) {
+            json.put(KEY_LAST_MODIFIED, entry.lastModified);
+        }
+        return json.toString();
+    }
+
+    private synchronized SharedPreferences getPreferences() {
+        if (preferences == null) {
+            preferences = context.getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE);
+        }
+        return preferences;
+    }
+}
@@ -0,0 +1,244 @@
+package com.rnappauth.utils;
+
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.openid.appauth.AuthorizationException;
+import net.openid.appauth.AuthorizationServiceConfiguration;
+import net.openid.appauth.AuthorizationServiceDiscovery;
+import net.openid.appauth.connectivity.ConnectionBuilder;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retrieves an OpenID Connect discovery document, like
+ * {@link AuthorizationServiceConfiguration#fetchFromUrl}, but also reads the HTTP caching headers
+ * of the response so the result can be stored in a {@link ServiceConfigurationCache}.
+ * When a previously cached entry is given, the request is made conditional on its validators and
+ * a 304 response reuses the cached configuration without parsing a new document.
+ * Network errors and retryable statuses are retried as allowed by the given {@link RetryPolicy}.
+ * Callbacks are delivered on the main thread.
+ */
+public final class ServiceConfigurationFetcher {
+
+    public interface Callback {
+        void onFetchCompleted(@Nullable ServiceConfigurationCache.Entry entry, @Nullable AuthorizationException ex);
+    }
+
+    /*
+     * Freshness lifetime used when the discovery response carries no caching headers
+     */
+    private static final long DEFAULT_MAX_AGE_MS = TimeUnit.HOURS.toMillis(24);
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private ServiceConfigurationFetcher() {
+    }
+
+    public static void fetch(
+            @NonNull Uri discoveryUri,
+            @NonNull ConnectionBuilder connectionBuilder,
+            @Nullable ServiceConfigurationCache.Entry cached,
+            @NonNull RetryPolicy retryPolicy,
+            @NonNull Callback callback) {
+        fetchAttempt(discoveryUri, connectionBuilder, cached, retryPolicy, 1, callback);
+    }
+
+    /*
+     * Discovery is a GET, so any network error can be retried along with retryable statuses.
+     * The backoff before a retry is waited out on the main looper rather than on the network
+     * executor, so a retrying fetch doesn't hold a thread other requests could use
+     */
+    private static void fetchAttempt(
+            @NonNull final Uri discoveryUri,
+            @NonNull final ConnectionBuilder connectionBuilder,
+            @Nullable final ServiceConfigurationCache.Entry cached,
+            @NonNull final RetryPolicy retryPolicy,
+            final int attempt,
+            @NonNull final Callback callback) {
+        NetworkExecutor.get().execute(new Runnable() {
+            @Override
+            public void run() {
+                ServiceConfigurationCache.Entry entry = null;
+                AuthorizationException exception = null;
+
+                try {
+                    entry = fetchEntry(discoveryUri, connectionBuilder, cached);
+                } catch (IOException e) {
+                    boolean retryable = !(e instanceof HttpStatusException)
+                            || RetryPolicy.isRetryableStatus(((HttpStatusException) e).status);
+                    if (retryable && retryPolicy.canRetry(attempt)) {
+                        MAIN_HANDLER.postDelayed(new Runnable() {
+                            @Override
+                            public void run() {
+                                fetchAttempt(discoveryUri, connectionBuilder, cached, retryPolicy, attempt + 1,
+                                        callback);
+                            }
+                        }, retryPolicy.getDelayMillis(attempt));
+                        return;
+                    }
+                    exception = AuthorizationException.fromTemplate(
+                            AuthorizationException.GeneralErrors.NETWORK_ERROR, e);
+                } catch (JSONException e) {
+                    exception = AuthorizationException.fromTemplate(
+                            AuthorizationException.GeneralErrors.JSON_DESERIALIZATION_ERROR, e);
+                } catch (AuthorizationServiceDiscovery.MissingArgumentException e) {
+                    exception = AuthorizationException.fromTemplate(
+                            AuthorizationException.GeneralErrors.INVALID_DISCOVERY_DOCUMENT, e);
+                } catch (IllegalArgumentException e) {
+                    // an endpoint in the document that is not a valid URI
+                    exception = AuthorizationException.fromTemplate(
+                            AuthorizationException.GeneralErrors.INVALID_DISCOVERY_DOCUMENT, e);
+                } catch (RuntimeException e) {
+                    // the callback must run even then, or callers joined to this fetch wait forever
+                    exception = AuthorizationException.fromTemplate(
+                            AuthorizationException.GeneralErrors.NETWORK_ERROR, e);
+                }
+
+                final ServiceConfigurationCache.Entry result = entry;
+                final AuthorizationException error = exception;
+                MAIN_HANDLER.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        callback.onFetchCompleted(result, error);
+                    }
+                });
+            }
+        });
+    }
+
+    private static ServiceConfigurationCache.Entry fetchEntry(Uri discoveryUri, ConnectionBuilder connectionBuilder,
+            @Nullable ServiceConfigurationCache.Entry cached)
+            throws IOException, JSONException, AuthorizationServiceDiscovery.MissingArgumentException {
+        HttpURLConnection conn = connectionBuilder.openConnection(discoveryUri);
+        conn.setRequestMethod("GET");
+        conn.setDoInput(true);
+
+        if (cached != null && cached.etag != null) {
+            conn.setRequestProperty("If-None-Match", cached.etag);
+        }
+        if (cached != null && cached.lastModified != null) {
+            conn.setRequestProperty("If-Modified-Since", cached.lastModified);
+        }
+
+        conn.connect();
+
+        long now = System.currentTimeMillis();
+        int status = conn.getResponseCode();
+        String cacheControl = conn.getHeaderField("Cache-Control");
+        boolean persistent = !hasDirective(cacheControl, "no-store");
+        String etag = conn.getHeaderField("ETag");
+        String lastModified = conn.getHeaderField("Last-Modified");
+
+        if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cached != null) {
+            readStream(conn.getErrorStream());
+            return new ServiceConfigurationCache.Entry(
+                    cached.configuration,
+                    resolveExpiry(cacheControl, conn.getExpiration(), now),
+                    etag != null ? etag : cached.etag,
+                    lastModified != null ? lastModified : cached.lastModified,
+                    persistent);
+        }
+
+        if (status < HttpURLConnection.HTTP_OK || status >= HttpURLConnection.HTTP_MULT_CHOICE) {
+            // drain the error body so the connection can be reused
+            readStream(conn.getErrorStream());
+            throw new HttpStatusException(status, discoveryUri);
+        }
+
+        String body = readStream(conn.getInputStream());
+        AuthorizationServiceDiscovery discovery = new AuthorizationServiceDiscovery(new JSONObject(body));
+
+        return new ServiceConfigurationCache.Entry(
+                new AuthorizationServiceConfiguration(discovery),
+                resolveExpiry(cacheControl, conn.getExpiration(), now),
+                etag,
+                lastModified,
+                persistent);
+    }
+
+    private static final class HttpStatusException extends IOException {
+        final int status;
+
+        HttpStatusException(int status, Uri uri) {
+            super("Unexpected HTTP status " + status + " fetching " + uri);
+            this.status = status;
+        }
+    }
+
+    /*
+     * Compute when a response stops being fresh, giving Cache-Control precedence over Expires
+     * as described in RFC 9111
+     */
+    static long resolveExpiry(@Nullable String cacheControl, long expires, long now) {
+        if (hasDirective(cacheControl, "no-store") || hasDirective(cacheControl, "no-cache")) {
+            return now;
+        }
+
+        if (cacheControl != null) {
+            for (String directive : cacheControl.split(",")) {
+                String trimmed = directive.trim().toLowerCase(Locale.US);
+                if (trimmed.startsWith("max-age=")) {
+                    try {
+                        long maxAgeSeconds = Long.parseLong(trimmed.substring("max-age=".length()).replace("\"", ""));
+                        return now + TimeUnit.SECONDS.toMillis(Math.max(0, maxAgeSeconds));
+                    } catch (NumberFormatException ignored) {
+                        // fall through to the Expires header
+                    }
+                }
+            }
+        }
+
+        if (expires > 0) {
+            return expires;
+        }
+
+        return now + DEFAULT_MAX_AGE_MS;
+    }
+
+    private static boolean hasDirective(@Nullable String cacheControl, String name) {
+        if (cacheControl == null) {
+            return false;
+        }
+
+        for (String directive : cacheControl.split(",")) {
+            if (directive.trim().toLowerCase(Locale.US).equals(name)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    static String readStream(@Nullable InputStream stream) throws IOException {
+        if (stream == null) {
+            return "";
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "UTF-8"));
+        try {
+            StringBuilder builder = new StringBuilder();
+            char[] buffer = new char[1024];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                builder.append(buffer, 0, read);
+            }
+            return builder.toString();
+        } finally {
+            reader.close();
+        }
+    }
+}
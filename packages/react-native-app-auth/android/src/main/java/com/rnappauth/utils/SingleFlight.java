@@ -0,0 +1,46 @@
+package com.rnappauth.utils;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Groups concurrent callers of the same operation so that only the first one performs it. Later
+ * callers are queued under the same key and are handed the outcome of the first when it completes.
+ */
+public final class SingleFlight<K, L> {
+
+    private final HashMap<K, List<L>> pending = new HashMap<>();
+
+    /*
+     * Register a listener for an operation. Returns true when the caller is the first for this
+     * key and is responsible for starting the operation and calling complete once it is done
+     */
+    public synchronized boolean join(@NonNull K key, @NonNull L listener) {
+        List<L> listeners = pending.get(key);
+        if (listeners != null) {
+            listeners.add(listener);
+            return false;
+        }
+
+        listeners = new ArrayList<>();
+        listeners.add(listener);
+        pending.put(key, listeners);
+        return true;
+    }
+
+    /*
+     * Remove and return every listener waiting on an operation, in the order they joined
+     */
+    @NonNull
+    public synchronized List<L> complete(@NonNull K key) {
+        List<L> listeners = pending.remove(key);
+        if (listeners == null) {
+            return Collections.emptyList();
+        }
+        return listeners;
+    }
+}
@@ -25,6 +25,17 @@ public final class TokenResponseFactory {
         return scopeArray;
     }
 
+    private static final void putIdTokenClaims(WritableMap map, String idToken) {
+        if (!ConversionOptions.shouldDecodeIdTokenClaims()) {
+            return;
+        }
+
+        WritableMap claims = IdTokenDecoder.decodeClaims(idToken);
+        if (claims != null) {
+            map.putMap("idTokenClaims", claims);
+        }
+    }
+
 
     /*
      * Read raw token response into a React Native map to be passed down the bridge
@@ -35,11 +46,12 @@ public final class TokenResponseFactory {
         map.putString("accessToken", response.accessToken);
         map.putMap("additionalParameters", MapUtil.createAdditionalParametersMap(response.additionalParameters));
         map.putString("idToken", response.idToken);
+        putIdTokenClaims(map, response.idToken);
         map.putString("refreshToken", response.refreshToken);
         map.putString("tokenType", response.tokenType);
 
         if (response.accessTokenExpirationTime != null) {
-            map.putString("accessTokenExpirationDate", DateUtil.formatTimestamp(response.accessTokenExpirationTime));
+            DateUtil.putTimestamp(map, "accessTokenExpirationDate", response.accessTokenExpirationTime);
         }
 
         return map;
@@ -55,12 +67,13 @@ public final class TokenResponseFactory {
         map.putMap("authorizeAdditionalParameters", MapUtil.createAdditionalParametersMap(authResponse.additionalParameters));
         map.putMap("tokenAdditionalParameters", MapUtil.createAdditionalParametersMap(response.additionalParameters));
         map.putString("idToken", response.idToken);
+        putIdTokenClaims(map, response.idToken);
         map.putString("refreshToken", response.refreshToken);
         map.putString("tokenType", response.tokenType);
         map.putArray("scopes", createScopeArray(authResponse.scope));
 
         if (response.accessTokenExpirationTime != null) {
-            map.putString("accessTokenExpirationDate", DateUtil.formatTimestamp(response.accessTokenExpirationTime));
+            DateUtil.putTimestamp(map, "accessTokenExpirationDate", response.accessTokenExpirationTime);
         }
 
 
@@ -77,11 +90,12 @@ public final class TokenResponseFactory {
         map.putString("accessToken", authResponse.accessToken);
         map.putMap("additionalParameters", MapUtil.createAdditionalParametersMap(authResponse.additionalParameters));
         map.putString("idToken", authResponse.idToken);
+        putIdTokenClaims(map, authResponse.idToken);
         map.putString("tokenType", authResponse.tokenType);
         map.putArray("scopes", createScopeArray(authResponse.scope));
 
         if (authResponse.accessTokenExpirationTime != null) {
-            map.putString("accessTokenExpirationTime", DateUtil.formatTimestamp(authResponse.accessTokenExpirationTime));
+            DateUtil.putTimestamp(map, "accessTokenExpirationTime", authResponse.accessTokenExpirationTime);
         }
 
         return map;
@@ -96,11 +110,12 @@ public final class TokenResponseFactory {
         map.putString("accessToken", authResponse.accessToken);
         map.putMap("additionalParameters", MapUtil.createAdditionalParametersMap(authResponse.additionalParameters));
         map.putString("idToken", authResponse.idToken);
+        putIdTokenClaims(map, authResponse.idToken);
         map.putString("tokenType", authResponse.tokenType);
         map.putArray("scopes", createScopeArray(authResponse.scope));
 
         if (authResponse.accessTokenExpirationTime != null) {
-            map.putString("accessTokenExpirationTime", DateUtil.formatTimestamp(authResponse.accessTokenExpirationTime));
+            DateUtil.putTimestamp(map, "accessTokenExpirationTime", authResponse.accessTokenExpirationTime);
         }
 
         if (!TextUtils.isEmpty(codeVerifier)) {
@@ -0,0 +1,250 @@
+package com.rnappauth.utils;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.os.Build;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.WritableMap;
+
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import javax.crypto.BadPaddingException;
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * Stores token responses on disk, encrypted with an AES key kept in the Android Keystore.
+ * Reads go through an in-memory cache so stored tokens can be returned synchronously, and
+ * writes update the cache immediately while the encrypted file is replaced atomically on a
+ * background thread. Requires API 23; on older devices nothing is stored.
+ */
+public final class TokenStore {
+
+    private static final String TAG = "RNAppAuth";
+    private static final String KEYSTORE_PROVIDER = "AndroidKeyStore";
+    private static final String KEY_ALIAS = "com.rnappauth.TokenStore";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String DIRECTORY_NAME = "rnappauth-tokens";
+    private static final int GCM_TAG_LENGTH_BITS = 128;
+    private static final int GCM_TAG_LENGTH_BYTES = GCM_TAG_LENGTH_BITS / 8;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /*
+     * Cached in place of removed tokens until their file is deleted
+     */
+    private static final String REMOVED = "";
+
+    private final File directory;
+    private final ConcurrentHashMap<String, String> cache = new ConcurrentHashMap<>();
+    private final Executor writeExecutor = Executors.newSingleThreadExecutor();
+
+    public TokenStore(Context context) {
+        this.directory = new File(context.getApplicationContext().getFilesDir(), DIRECTORY_NAME);
+    }
+
+    public static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.M;
+    }
+
+    public void put(@NonNull final String key, @NonNull ReadableMap tokens) {
+        if (!isSupported()) {
+            Log.w(TAG, "Token storage requires Android 6.0, tokens for " + key + " were not stored");
+            return;
+        }
+
+        final String serialized = new JSONObject(tokens.toHashMap()).toString();
+        cache.put(key, serialized);
+        writeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    write(key, serialized);
+                } catch (IOException | GeneralSecurityException e) {
+                    Log.e(TAG, "Unable to store tokens for " + key, e);
+                }
+            }
+        });
+    }
+
+    @Nullable
+    public WritableMap get(@NonNull String key) {
+        if (!isSupported()) {
+            return null;
+        }
+
+        String serialized = cache.get(key);
+        if (REMOVED.equals(serialized)) {
+            return null;
+        }
+        if (serialized == null) {
+            try {
+                serialized = read(key);
+            } catch (IOException | GeneralSecurityException e) {
+                Log.e(TAG, "Unable to read stored tokens for " + key, e);
+                return null;
+            }
+            if (serialized == null) {
+                return null;
+            }
+            cache.putIfAbsent(key, serialized);
+        }
+
+        try {
+            return MapUtil.convertJsonStringToMap(serialized);
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            Log.e(TAG, "Stored tokens for " + key + " are unreadable", e);
+            return null;
+        }
+    }
+
+    public void remove(@NonNull final String key) {
+        cache.put(key, REMOVED);
+        deleteFile(key);
+    }
+
+    /*
+     * Remove a file that can't be decrypted, unless tokens were stored for the key since it
+     * was read
+     */
+    private void discard(@NonNull String key) {
+        if (cache.putIfAbsent(key, REMOVED) == null) {
+            deleteFile(key);
+        }
+    }
+
+    private void deleteFile(@NonNull final String key) {
+        writeExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                fileFor(key).delete();
+            }
+        });
+    }
+
+    @TargetApi(Build.VERSION_CODES.M)
+    private void write(String key, String serialized) throws IOException, GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.ENCRYPT_MODE, getOrCreateKey());
+        byte[] iv = cipher.getIV();
+        byte[] encrypted = cipher.doFinal(serialized.getBytes(UTF_8));
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+
+        AtomicFile file = fileFor(key);
+        FileOutputStream stream = file.startWrite();
+        try {
+            stream.write(iv.length);
+            stream.write(iv);
+            stream.write(encrypted);
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            file.failWrite(stream);
+            throw e;
+        }
+    }
+
+    @Nullable
+    @TargetApi(Build.VERSION_CODES.M)
+    private String read(String key) throws IOException, GeneralSecurityException {
+        byte[] contents;
+        try {
+            contents = fileFor(key).readFully();
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+
+        if (!isWellFormed(contents)) {
+            Log.w(TAG, "Stored tokens for " + key + " are corrupt and were removed");
+            discard(key);
+            return null;
+        }
+
+        int ivLength = contents[0];
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(Cipher.DECRYPT_MODE, getOrCreateKey(),
+                new GCMParameterSpec(GCM_TAG_LENGTH_BITS, contents, 1, ivLength));
+        byte[] decrypted;
+        try {
+            decrypted = cipher.doFinal(contents, 1 + ivLength, contents.length - 1 - ivLength);
+        } catch (BadPaddingException e) {
+            // the authentication tag doesn't match, so the file was truncated or altered
+            Log.w(TAG, "Stored tokens for " + key + " are corrupt and were removed", e);
+            discard(key);
+            return null;
+        }
+        return new String(decrypted, UTF_8);
+    }
+
+    /*
+     * Check that a file holds an IV length byte, an IV of that length and at least an
+     * authentication tag, which an interrupted or foreign write may not
+     */
+    static boolean isWellFormed(@NonNull byte[] contents) {
+        if (contents.length == 0) {
+            return false;
+        }
+        int ivLength = contents[0];
+        return ivLength > 0 && contents.length >= 1 + ivLength + GCM_TAG_LENGTH_BYTES;
+    }
+
+    @TargetApi(Build.VERSION_CODES.M)
+    private synchronized SecretKey getOrCreateKey() throws IOException, GeneralSecurityException {
+        KeyStore keyStore = KeyStore.getInstance(KEYSTORE_PROVIDER);
+        keyStore.load(null);
+
+        if (!keyStore.containsAlias(KEY_ALIAS)) {
+            KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, KEYSTORE_PROVIDER);
+            generator.init(new KeyGenParameterSpec.Builder(
+                    KEY_ALIAS, KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                    .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                    .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                    .setKeySize(256)
+                    .build());
+            return generator.generateKey();
+        }
+
+        return (SecretKey) keyStore.getKey(KEY_ALIAS, null);
+    }
+
+    /*
+     * Keys are app defined strings, so file names are derived from their hash
+     */
+    private AtomicFile fileFor(String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(key.getBytes(UTF_8));
+            StringBuilder name = new StringBuilder();
+            for (byte b : hash) {
+                name.append(String.format("%02x", b));
+            }
+            return new AtomicFile(new File(directory, name.toString()));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
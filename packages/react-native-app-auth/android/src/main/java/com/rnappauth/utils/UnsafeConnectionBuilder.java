@@ -58,10 +58,11 @@ public final class UnsafeConnectionBuilder implements ConnectionBuilder {
     private static final String HTTPS = "https";
 
     @SuppressLint("TrustAllX509TrustManager")
-    private static final TrustManager[] ANY_CERT_MANAGER = new TrustManager[] {
+    static final TrustManager[] ANY_CERT_MANAGER = new TrustManager[] {
             new X509TrustManager() {
                 public X509Certificate[] getAcceptedIssuers() {
-                    return null;
+                    // OkHttp indexes the accepted issuers when it is given this trust manager
+                    return new X509Certificate[0];
                 }
 
                 public void checkClientTrusted(X509Certificate[] certs, String authType) {}
@@ -71,14 +72,14 @@ public final class UnsafeConnectionBuilder implements ConnectionBuilder {
     };
 
     @SuppressLint("BadHostnameVerifier")
-    private static final HostnameVerifier ANY_HOSTNAME_VERIFIER = new HostnameVerifier() {
+    static final HostnameVerifier ANY_HOSTNAME_VERIFIER = new HostnameVerifier() {
         public boolean verify(String hostname, SSLSession session) {
             return true;
         }
     };
 
     @Nullable
-    private static final SSLContext TRUSTING_CONTEXT;
+    static final SSLContext TRUSTING_CONTEXT;
 
     static {
         SSLContext context;
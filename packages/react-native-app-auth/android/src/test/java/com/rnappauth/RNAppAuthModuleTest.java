@@ -0,0 +1,68 @@
+package com.rnappauth;
+
+import static org.junit.Assert.assertEquals;
+
+import android.app.Application;
+import android.content.Context;
+import android.net.Uri;
+
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReactApplicationContext;
+
+import net.openid.appauth.AuthorizationServiceConfiguration;
+import net.openid.appauth.connectivity.DefaultConnectionBuilder;
+
+import org.json.JSONObject;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class RNAppAuthModuleTest {
+
+    private static final String ISSUER = "https://issuer.example.com";
+    private static final String PERSISTED_TOKEN_ENDPOINT = "https://issuer.example.com/persisted/token";
+    private static final String PROVIDED_TOKEN_ENDPOINT = "https://issuer.example.com/provided/token";
+
+    private RNAppAuthModule module;
+
+    @Before
+    public void setUp() throws Exception {
+        Application application = RuntimeEnvironment.getApplication();
+
+        // a discovery document persisted by an earlier run of the app, fresh for another hour
+        AuthorizationServiceConfiguration persisted = new AuthorizationServiceConfiguration(
+                Uri.parse(ISSUER + "/authorize"), Uri.parse(PERSISTED_TOKEN_ENDPOINT));
+        JSONObject entry = new JSONObject();
+        entry.put("configuration", persisted.toJson());
+        entry.put("expiresAt", System.currentTimeMillis() + 3600000);
+        application.getSharedPreferences("com.rnappauth.ServiceConfigurationCache", Context.MODE_PRIVATE)
+                .edit()
+                .putString(ISSUER, entry.toString())
+                .commit();
+
+        module = new RNAppAuthModule(new ReactApplicationContext(application));
+    }
+
+    @Test
+    public void usesThePersistedConfigurationWhenNoneIsPassed() throws Exception {
+        AuthorizationServiceConfiguration configuration =
+                module.resolveServiceConfiguration(null, ISSUER, DefaultConnectionBuilder.INSTANCE);
+
+        assertEquals(Uri.parse(PERSISTED_TOKEN_ENDPOINT), configuration.tokenEndpoint);
+    }
+
+    @Test
+    public void prefersAPassedConfigurationOverThePersistedOne() throws Exception {
+        JavaOnlyMap serviceConfiguration = JavaOnlyMap.of(
+                "authorizationEndpoint", ISSUER + "/authorize",
+                "tokenEndpoint", PROVIDED_TOKEN_ENDPOINT);
+
+        AuthorizationServiceConfiguration configuration =
+                module.resolveServiceConfiguration(serviceConfiguration, ISSUER, DefaultConnectionBuilder.INSTANCE);
+
+        assertEquals(Uri.parse(PROVIDED_TOKEN_ENDPOINT), configuration.tokenEndpoint);
+    }
+}
@@ -0,0 +1,171 @@
+package com.rnappauth;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+
+import com.facebook.react.bridge.Promise;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+@RunWith(RobolectricTestRunner.class)
+public class TokenRefreshSchedulerTest {
+
+    private static final List<String> KEY = Arrays.asList("https://issuer.example.com", "client");
+    private static final long SKEW_MS = 60000;
+    private static final long EXPIRES_IN_MS = 3600000;
+
+    private final List<Runnable> queued = new ArrayList<>();
+    private final List<String> refreshedTokens = new ArrayList<>();
+    private TokenRefreshScheduler scheduler;
+    private long expiresAt;
+
+    private final TokenRefreshScheduler.RefreshTask task = new TokenRefreshScheduler.RefreshTask() {
+        @Override
+        public void refresh(String refreshToken, Promise promise) {
+            refreshedTokens.add(refreshToken);
+        }
+    };
+
+    @Before
+    public void setUp() {
+        scheduler = new TokenRefreshScheduler(new TokenRefreshScheduler.PromiseFactory() {
+            @Override
+            public Promise create(List<String> key) {
+                return mock(Promise.class);
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                queued.add(command);
+            }
+        });
+        expiresAt = System.currentTimeMillis() + EXPIRES_IN_MS;
+    }
+
+    @Test
+    public void handsTheRefreshToTheExecutorBeforeExpiry() {
+        long runAt = scheduler.schedule(KEY, task, "refresh-token", expiresAt, SKEW_MS);
+
+        assertEquals(expiresAt - SKEW_MS, runAt);
+        idleFor(EXPIRES_IN_MS - SKEW_MS - 1000);
+        assertTrue(queued.isEmpty());
+
+        idleFor(2000);
+        assertEquals(1, queued.size());
+        // nothing ran on the main looper itself
+        assertTrue(refreshedTokens.isEmpty());
+
+        runQueued();
+        assertEquals(Arrays.asList("refresh-token"), refreshedTokens);
+    }
+
+    @Test
+    public void skipsARefreshCancelledWhileQueued() {
+        scheduler.schedule(KEY, task, "refresh-token", expiresAt, SKEW_MS);
+        idleFor(EXPIRES_IN_MS);
+
+        scheduler.cancel(KEY);
+        runQueued();
+
+        assertTrue(refreshedTokens.isEmpty());
+    }
+
+    @Test
+    public void retriesAFailedRefreshBeforeExpiry() {
+        scheduler.schedule(KEY, task, "refresh-token", expiresAt, SKEW_MS);
+        idleFor(EXPIRES_IN_MS - SKEW_MS);
+        runQueued();
+
+        long retryAt = scheduler.onRefreshFailed(KEY, "token_refresh_failed");
+
+        assertTrue(retryAt >= System.currentTimeMillis());
+        assertTrue(retryAt <= expiresAt);
+        idleFor(retryAt - System.currentTimeMillis() + 1000);
+        runQueued();
+        assertEquals(Arrays.asList("refresh-token", "refresh-token"), refreshedTokens);
+    }
+
+    @Test
+    public void dropsTheScheduleWhenTheRefreshTokenIsRejected() {
+        scheduler.schedule(KEY, task, "refresh-token", expiresAt, SKEW_MS);
+        idleFor(EXPIRES_IN_MS - SKEW_MS);
+        runQueued();
+
+        assertEquals(-1, scheduler.onRefreshFailed(KEY, "invalid_grant"));
+        assertEquals(-1, scheduler.onRefreshFailed(KEY, "token_refresh_failed"));
+
+        idleFor(EXPIRES_IN_MS);
+        runQueued();
+        assertEquals(1, refreshedTokens.size());
+    }
+
+    @Test
+    public void dropsTheScheduleAfterTheLastRetry() {
+        scheduler.schedule(KEY, task, "refresh-token", expiresAt, SKEW_MS);
+        idleFor(EXPIRES_IN_MS - SKEW_MS);
+        runQueued();
+
+        long retryAt = 0;
+        int failures = 0;
+        while (retryAt >= 0) {
+            retryAt = scheduler.onRefreshFailed(KEY, "token_refresh_failed");
+            failures++;
+            if (retryAt >= 0) {
+                idleFor(retryAt - System.currentTimeMillis() + 1000);
+                runQueued();
+            }
+        }
+
+        int refreshes = refreshedTokens.size();
+        assertEquals(failures, refreshes);
+        idleFor(EXPIRES_IN_MS);
+        runQueued();
+        assertEquals(refreshes, refreshedTokens.size());
+    }
+
+    @Test
+    public void resumesTheScheduleAfterASuccessfulRetry() {
+        scheduler.schedule(KEY, task, "refresh-token", expiresAt, SKEW_MS);
+        idleFor(EXPIRES_IN_MS - SKEW_MS);
+        runQueued();
+        long retryAt = scheduler.onRefreshFailed(KEY, "token_refresh_failed");
+        idleFor(retryAt - System.currentTimeMillis() + 1000);
+        runQueued();
+
+        long nextExpiresAt = System.currentTimeMillis() + EXPIRES_IN_MS;
+        scheduler.onTokensRefreshed(KEY, "rotated-token", nextExpiresAt);
+        idleFor(EXPIRES_IN_MS);
+        runQueued();
+
+        assertEquals(Arrays.asList("refresh-token", "refresh-token", "rotated-token"), refreshedTokens);
+    }
+
+    private void runQueued() {
+        List<Runnable> commands = new ArrayList<>(queued);
+        queued.clear();
+        for (Runnable command : commands) {
+            command.run();
+        }
+    }
+
+    /*
+     * The scheduler computes delays from the wall clock, while Robolectric's main looper only
+     * advances when told to
+     */
+    private static void idleFor(long millis) {
+        shadowOf(Looper.getMainLooper()).idleFor(Duration.ofMillis(Math.max(0, millis)));
+    }
+}
@@ -0,0 +1,132 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import com.facebook.react.bridge.Promise;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowSystemClock;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class AuthFlowRegistryTest {
+
+    private static final int FIRST_REQUEST_CODE = 0x5200;
+    private static final int REQUEST_CODE_COUNT = 0x100;
+
+    private final AuthFlowRegistry registry = new AuthFlowRegistry();
+
+    @Test
+    public void joinsAFlowInProgress() {
+        Promise first = mock(Promise.class);
+        Promise second = mock(Promise.class);
+
+        AuthFlowRegistry.Flow flow = registry.join(AuthFlowRegistry.TYPE_AUTHORIZE, key(1), null, first);
+        assertNotNull(flow);
+        assertNull(registry.join(AuthFlowRegistry.TYPE_AUTHORIZE, key(1), null, second));
+
+        assertEquals(Arrays.asList(first, second), registry.complete(flow));
+        assertEquals(Collections.emptyList(), registry.complete(flow));
+    }
+
+    @Test
+    public void startsSeparateFlowsForDifferentKeys() {
+        AuthFlowRegistry.Flow first = start(1);
+        AuthFlowRegistry.Flow second = start(2);
+
+        assertNotNull(second);
+        assertNotEquals(first.state, second.state);
+        assertNotEquals(first.requestCode, second.requestCode);
+        assertSame(first, registry.getByRequestCode(first.requestCode));
+        assertSame(second, registry.getByRequestCode(second.requestCode));
+    }
+
+    @Test
+    public void usesTheGivenState() {
+        AuthFlowRegistry.Flow flow = registry.join(AuthFlowRegistry.TYPE_END_SESSION, key(1), "state",
+                mock(Promise.class));
+
+        assertEquals("state", flow.state);
+        assertEquals(AuthFlowRegistry.TYPE_END_SESSION, flow.type);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsADuplicateState() {
+        registry.join(AuthFlowRegistry.TYPE_AUTHORIZE, key(1), "state", mock(Promise.class));
+        registry.join(AuthFlowRegistry.TYPE_AUTHORIZE, key(2), "state", mock(Promise.class));
+    }
+
+    @Test
+    public void handsOutConsecutiveRequestCodes() {
+        assertEquals(FIRST_REQUEST_CODE, start(1).requestCode);
+        assertEquals(FIRST_REQUEST_CODE + 1, start(2).requestCode);
+    }
+
+    @Test
+    public void wrapsAroundPastRequestCodesInUse() {
+        AuthFlowRegistry.Flow[] flows = new AuthFlowRegistry.Flow[REQUEST_CODE_COUNT];
+        for (int i = 0; i < REQUEST_CODE_COUNT; i++) {
+            flows[i] = start(i);
+            assertEquals(FIRST_REQUEST_CODE + i, flows[i].requestCode);
+        }
+
+        registry.complete(flows[0x10]);
+        registry.complete(flows[0x05]);
+
+        assertEquals(FIRST_REQUEST_CODE + 0x05, start(REQUEST_CODE_COUNT).requestCode);
+        assertEquals(FIRST_REQUEST_CODE + 0x10, start(REQUEST_CODE_COUNT + 1).requestCode);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsAFlowWhenEveryRequestCodeIsInUse() {
+        for (int i = 0; i <= REQUEST_CODE_COUNT; i++) {
+            start(i);
+        }
+    }
+
+    @Test
+    public void stopsJoiningAnExpiredFlow() {
+        AuthFlowRegistry.Flow expired = start(1);
+
+        advance(AuthFlowRegistry.FLOW_EXPIRY_MILLIS - 1);
+        assertNull(registry.join(AuthFlowRegistry.TYPE_AUTHORIZE, key(1), null, mock(Promise.class)));
+        assertTrue(registry.getExpired().isEmpty());
+
+        advance(1);
+        assertEquals(Collections.singletonList(expired), registry.getExpired());
+
+        AuthFlowRegistry.Flow replacement = start(1);
+        assertNotNull(replacement);
+        assertNotEquals(expired.requestCode, replacement.requestCode);
+        assertEquals(2, registry.getAll().size());
+
+        // completing the expired flow leaves its replacement joinable
+        assertEquals(2, registry.complete(expired).size());
+        assertNull(registry.join(AuthFlowRegistry.TYPE_AUTHORIZE, key(1), null, mock(Promise.class)));
+        assertSame(replacement, registry.getByRequestCode(replacement.requestCode));
+    }
+
+    private AuthFlowRegistry.Flow start(int id) {
+        return registry.join(AuthFlowRegistry.TYPE_AUTHORIZE, key(id), null, mock(Promise.class));
+    }
+
+    private static List<Object> key(int id) {
+        return Arrays.<Object>asList("https://issuer.example.com", "client", id);
+    }
+
+    private static void advance(long millis) {
+        ShadowSystemClock.advanceBy(Duration.ofMillis(millis));
+    }
+}
@@ -0,0 +1,96 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.net.Uri;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.openid.appauth.AppAuthConfiguration;
+import net.openid.appauth.AuthorizationException;
+import net.openid.appauth.AuthorizationService;
+import net.openid.appauth.AuthorizationServiceConfiguration;
+import net.openid.appauth.GrantTypeValues;
+import net.openid.appauth.NoClientAuthentication;
+import net.openid.appauth.TokenRequest;
+import net.openid.appauth.TokenResponse;
+import net.openid.appauth.connectivity.ConnectionBuilder;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class AuthorizationRequestPerformerTest {
+
+    private TokenResponse response;
+    private AuthorizationException exception;
+    private boolean completed = false;
+
+    @Test
+    public void findsTheRequestTasksOfAppAuth() {
+        assertTrue(AuthorizationRequestPerformer.isAvailable());
+    }
+
+    @Test
+    public void runsTheTokenRequestWithoutTheService() throws Exception {
+        AuthorizationService service = mock(AuthorizationService.class);
+        AppAuthConfiguration configuration = new AppAuthConfiguration.Builder()
+                .setConnectionBuilder(new ConnectionBuilder() {
+                    @NonNull
+                    @Override
+                    public HttpURLConnection openConnection(@NonNull Uri uri) throws IOException {
+                        throw new IOException("offline");
+                    }
+                })
+                .build();
+        TokenRequest request = new TokenRequest.Builder(
+                new AuthorizationServiceConfiguration(
+                        Uri.parse("https://issuer.example.com/authorize"),
+                        Uri.parse("https://issuer.example.com/token")),
+                "client")
+                .setGrantType(GrantTypeValues.REFRESH_TOKEN)
+                .setRefreshToken("refresh-token")
+                .build();
+
+        AuthorizationRequestPerformer.performTokenRequest(service, request, NoClientAuthentication.INSTANCE,
+                configuration, new AuthorizationService.TokenResponseCallback() {
+                    @Override
+                    public void onTokenRequestCompleted(@Nullable TokenResponse result,
+                            @Nullable AuthorizationException ex) {
+                        response = result;
+                        exception = ex;
+                        completed = true;
+                    }
+                });
+        awaitCompletion();
+
+        verifyNoInteractions(service);
+        assertNull(response);
+        assertEquals(AuthorizationException.GeneralErrors.NETWORK_ERROR.code, exception.code);
+    }
+
+    /*
+     * The task runs on the network executor and reports back on the main looper, which
+     * Robolectric only runs when asked to
+     */
+    private void awaitCompletion() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!completed && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+        assertTrue("the token request never completed", completed);
+    }
+}
@@ -0,0 +1,144 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.Activity;
+import android.app.Application;
+import android.content.Intent;
+import android.net.Uri;
+import android.os.Looper;
+
+import net.openid.appauth.AppAuthConfiguration;
+import net.openid.appauth.AuthorizationService;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.Robolectric;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+@RunWith(RobolectricTestRunner.class)
+public class AuthorizationServicePoolTest {
+
+    private Application application;
+    private AuthorizationServicePool pool;
+
+    @Before
+    public void setUp() {
+        application = RuntimeEnvironment.getApplication();
+        pool = new AuthorizationServicePool(application);
+    }
+
+    @After
+    public void tearDown() {
+        pool.dispose();
+    }
+
+    @Test
+    public void reusesTheServiceOfAConfiguration() {
+        AppAuthConfiguration configuration = new AppAuthConfiguration.Builder().build();
+
+        AuthorizationService first = pool.acquire(configuration);
+        pool.release(first);
+        AuthorizationService second = pool.acquire(configuration);
+        pool.release(second);
+
+        assertSame(first, second);
+        assertFalse(isDisposed(first));
+    }
+
+    @Test
+    public void disposesAnEvictedServiceThatIsNotInUse() {
+        AuthorizationService evicted = pool.acquire(new AppAuthConfiguration.Builder().build());
+        pool.release(evicted);
+
+        fillPool();
+
+        assertTrue(isDisposed(evicted));
+    }
+
+    @Test
+    public void keepsAnEvictedServiceUntilItIsReleased() {
+        AppAuthConfiguration configuration = new AppAuthConfiguration.Builder().build();
+        AuthorizationService inUse = pool.acquire(configuration);
+
+        fillPool();
+
+        assertFalse(isDisposed(inUse));
+        AuthorizationService replacement = pool.acquire(configuration);
+        assertNotSame(inUse, replacement);
+        pool.release(replacement);
+
+        pool.release(inUse);
+        assertTrue(isDisposed(inUse));
+        assertFalse(isDisposed(replacement));
+    }
+
+    @Test
+    public void waitsForEveryCallerBeforeDisposing() {
+        AppAuthConfiguration configuration = new AppAuthConfiguration.Builder().build();
+        AuthorizationService first = pool.acquire(configuration);
+        AuthorizationService second = pool.acquire(configuration);
+
+        fillPool();
+
+        pool.release(first);
+        assertFalse(isDisposed(second));
+        pool.release(second);
+        assertTrue(isDisposed(second));
+    }
+
+    @Test
+    public void keepsAServiceInUseWhenPackagesChange() {
+        AuthorizationService inUse = pool.acquire(new AppAuthConfiguration.Builder().build());
+
+        application.sendBroadcast(new Intent(Intent.ACTION_PACKAGE_ADDED, Uri.parse("package:com.example.browser")));
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertFalse(isDisposed(inUse));
+        pool.release(inUse);
+        assertTrue(isDisposed(inUse));
+    }
+
+    @Test
+    public void disposesAnActivityServiceWhenItIsReleased() {
+        Activity activity = Robolectric.buildActivity(Activity.class).create().get();
+        AppAuthConfiguration configuration = new AppAuthConfiguration.Builder().build();
+
+        AuthorizationService service = pool.acquire(activity, configuration);
+        assertFalse(isDisposed(service));
+
+        pool.release(service);
+        assertTrue(isDisposed(service));
+    }
+
+    @Test
+    public void disposesServicesInUseWithThePool() {
+        AuthorizationService inUse = pool.acquire(new AppAuthConfiguration.Builder().build());
+
+        pool.dispose();
+
+        assertTrue(isDisposed(inUse));
+    }
+
+    private void fillPool() {
+        for (int i = 0; i < AuthorizationServicePool.MAX_SERVICES; i++) {
+            pool.release(pool.acquire(new AppAuthConfiguration.Builder().build()));
+        }
+    }
+
+    private static boolean isDisposed(AuthorizationService service) {
+        try {
+            service.createCustomTabsIntentBuilder();
+            return false;
+        } catch (IllegalStateException e) {
+            return true;
+        }
+    }
+}
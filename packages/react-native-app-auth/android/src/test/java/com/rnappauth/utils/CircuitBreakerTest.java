@@ -0,0 +1,144 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import net.openid.appauth.AuthorizationException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowSystemClock;
+
+import java.net.ConnectException;
+import java.time.Duration;
+
+@RunWith(RobolectricTestRunner.class)
+public class CircuitBreakerTest {
+
+    private static final String ENDPOINT = "https://issuer.example.com/token";
+    private static final String OTHER_ENDPOINT = "https://other.example.com/token";
+    private static final int THRESHOLD = 3;
+    private static final long RESET_TIMEOUT_MS = 30000;
+
+    private final CircuitBreaker breaker = new CircuitBreaker(THRESHOLD, RESET_TIMEOUT_MS);
+
+    @Test
+    public void staysClosedBelowTheThreshold() {
+        fail(THRESHOLD - 1);
+
+        assertTrue(breaker.tryAcquire(ENDPOINT));
+    }
+
+    @Test
+    public void opensAtTheThreshold() {
+        fail(THRESHOLD);
+
+        assertFalse(breaker.tryAcquire(ENDPOINT));
+        assertTrue(breaker.tryAcquire(OTHER_ENDPOINT));
+    }
+
+    @Test
+    public void failsFastUntilTheResetTimeout() {
+        fail(THRESHOLD);
+
+        advance(RESET_TIMEOUT_MS - 1);
+        assertFalse(breaker.tryAcquire(ENDPOINT));
+    }
+
+    @Test
+    public void letsASingleProbeThroughAfterTheResetTimeout() {
+        fail(THRESHOLD);
+
+        advance(RESET_TIMEOUT_MS);
+        assertTrue(breaker.tryAcquire(ENDPOINT));
+        assertFalse(breaker.tryAcquire(ENDPOINT));
+    }
+
+    @Test
+    public void reopensWhenTheProbeFails() {
+        fail(THRESHOLD);
+        advance(RESET_TIMEOUT_MS);
+        assertTrue(breaker.tryAcquire(ENDPOINT));
+
+        breaker.onRequestCompleted(ENDPOINT, true);
+
+        assertFalse(breaker.tryAcquire(ENDPOINT));
+        advance(RESET_TIMEOUT_MS - 1);
+        assertFalse(breaker.tryAcquire(ENDPOINT));
+        advance(1);
+        assertTrue(breaker.tryAcquire(ENDPOINT));
+    }
+
+    @Test
+    public void closesWhenTheProbeSucceeds() {
+        fail(THRESHOLD);
+        advance(RESET_TIMEOUT_MS);
+        assertTrue(breaker.tryAcquire(ENDPOINT));
+
+        breaker.onRequestCompleted(ENDPOINT, false);
+
+        assertTrue(breaker.tryAcquire(ENDPOINT));
+        assertTrue(breaker.tryAcquire(ENDPOINT));
+        // the failure count starts over
+        fail(THRESHOLD - 1);
+        assertTrue(breaker.tryAcquire(ENDPOINT));
+    }
+
+    @Test
+    public void resetsTheCountAfterARequestThatIsNotAnOutage() {
+        fail(THRESHOLD - 1);
+        breaker.onRequestCompleted(ENDPOINT, false);
+        fail(THRESHOLD - 1);
+
+        assertTrue(breaker.tryAcquire(ENDPOINT));
+    }
+
+    @Test
+    public void reportsTheTimeLeftUntilTheProbe() {
+        fail(THRESHOLD);
+        advance(10000);
+
+        AuthorizationException ex = breaker.createOpenException(ENDPOINT);
+
+        assertEquals(CircuitBreaker.ERROR_CODE, ex.error);
+        assertTrue(ex.errorDescription, ex.errorDescription.contains("20000ms"));
+    }
+
+    @Test
+    public void countsUnreachableEndpointsAsOutages() {
+        assertTrue(CircuitBreaker.isOutage(AuthorizationException.fromTemplate(
+                AuthorizationException.GeneralErrors.NETWORK_ERROR, new ConnectException())));
+        assertTrue(CircuitBreaker.isOutage(AuthorizationException.fromTemplate(
+                AuthorizationException.GeneralErrors.JSON_DESERIALIZATION_ERROR, null)));
+        assertTrue(CircuitBreaker.isOutage(tokenError("server_error")));
+    }
+
+    @Test
+    public void doesNotCountRejectedRequestsAsOutages() {
+        assertFalse(CircuitBreaker.isOutage(tokenError("invalid_grant")));
+        assertFalse(CircuitBreaker.isOutage(null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAThresholdBelowOne() {
+        new CircuitBreaker(0, RESET_TIMEOUT_MS);
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire(ENDPOINT));
+            breaker.onRequestCompleted(ENDPOINT, true);
+        }
+    }
+
+    private static void advance(long millis) {
+        ShadowSystemClock.advanceBy(Duration.ofMillis(millis));
+    }
+
+    private static AuthorizationException tokenError(String error) {
+        return new AuthorizationException(AuthorizationException.TYPE_OAUTH_TOKEN_ERROR, 2000, error,
+                null, null, null);
+    }
+}
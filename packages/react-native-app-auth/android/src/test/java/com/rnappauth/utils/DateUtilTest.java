@@ -0,0 +1,79 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+public class DateUtilTest {
+
+    // 1583-01-01T00:00:00Z and 10000-01-01T00:00:00Z, the bounds of the fast path
+    private static final long FIRST_FAST_MILLIS = -12212553600000L;
+    private static final long FIRST_SLOW_MILLIS_AFTER = 253402300800000L;
+
+    @Test
+    public void formatsTheEpoch() {
+        assertEquals("1970-01-01T00:00:00Z", DateUtil.formatTimestamp(0L));
+    }
+
+    @Test
+    public void formatsTimesOfDay() {
+        assertEquals("2024-02-29T23:59:59Z", DateUtil.formatTimestamp(1709251199000L));
+        assertEquals("2024-03-01T00:00:00Z", DateUtil.formatTimestamp(1709251200000L));
+    }
+
+    @Test
+    public void dropsMilliseconds() {
+        assertEquals("2024-03-01T00:00:00Z", DateUtil.formatTimestamp(1709251200999L));
+    }
+
+    @Test
+    public void formatsTimesBeforeTheEpoch() {
+        assertEquals("1969-12-31T23:59:59Z", DateUtil.formatTimestamp(-1000L));
+        assertEquals("1969-12-31T23:59:59Z", DateUtil.formatTimestamp(-1L));
+    }
+
+    @Test
+    public void formatsTheFirstAndLastYearOfTheFastPath() {
+        assertEquals("1583-01-01T00:00:00Z", DateUtil.formatTimestamp(FIRST_FAST_MILLIS));
+        assertEquals("9999-12-31T23:59:59Z", DateUtil.formatTimestamp(FIRST_SLOW_MILLIS_AFTER - 1000));
+    }
+
+    @Test
+    public void matchesSimpleDateFormatAcrossTheFallbackBoundaries() {
+        long[] timestamps = {
+                FIRST_FAST_MILLIS - 1000,
+                FIRST_FAST_MILLIS - 1,
+                FIRST_FAST_MILLIS,
+                FIRST_FAST_MILLIS + 1000,
+                FIRST_SLOW_MILLIS_AFTER - 1000,
+                FIRST_SLOW_MILLIS_AFTER - 1,
+                FIRST_SLOW_MILLIS_AFTER,
+                FIRST_SLOW_MILLIS_AFTER + 1000,
+                // before the Gregorian calendar was introduced in October 1582
+                -12219292800000L - 86400000L,
+        };
+
+        for (long timestamp : timestamps) {
+            assertEquals("timestamp " + timestamp, reference(timestamp), DateUtil.formatTimestamp(timestamp));
+        }
+    }
+
+    @Test
+    public void matchesSimpleDateFormatAcrossTheFastPath() {
+        long step = 7919L * 3600 * 1000 + 123456;
+        for (long timestamp = FIRST_FAST_MILLIS; timestamp < FIRST_SLOW_MILLIS_AFTER; timestamp += step) {
+            assertEquals("timestamp " + timestamp, reference(timestamp), DateUtil.formatTimestamp(timestamp));
+        }
+    }
+
+    private static String reference(long timestamp) {
+        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        formatter.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return formatter.format(new Date(timestamp));
+    }
+}
@@ -0,0 +1,112 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mockStatic;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.MockedStatic;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class InMemoryAuthMetricsTest {
+
+    private static final String ISSUER = "https://issuer.example.com";
+
+    private final InMemoryAuthMetrics metrics = new InMemoryAuthMetrics();
+    private MockedStatic<Arguments> arguments;
+
+    @Before
+    public void setUp() {
+        // the native maps need the React Native libraries, which are not loaded in JVM tests
+        arguments = mockStatic(Arguments.class);
+        arguments.when(Arguments::createMap).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return new JavaOnlyMap();
+            }
+        });
+        arguments.when(Arguments::createArray).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return new JavaOnlyArray();
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        arguments.close();
+    }
+
+    @Test
+    public void countsServiceConfigurationLookups() {
+        metrics.onServiceConfigurationLookup(ISSUER, true);
+        metrics.onServiceConfigurationLookup(ISSUER, true);
+        metrics.onServiceConfigurationLookup(ISSUER, false);
+
+        ReadableMap serviceConfiguration = metrics.toMap().getMap("serviceConfiguration");
+        assertEquals(2, serviceConfiguration.getDouble("cacheHits"), 0);
+        assertEquals(1, serviceConfiguration.getDouble("cacheMisses"), 0);
+    }
+
+    @Test
+    public void aggregatesTokenRequestsPerIssuer() {
+        metrics.onTokenRequestCompleted(ISSUER, "refresh_token", 40, null);
+        metrics.onTokenRequestCompleted(ISSUER, "refresh_token", 50, "server_error");
+        metrics.onTokenRequestCompleted(ISSUER, "authorization_code", 300, null);
+        metrics.onTokenRequestCompleted(ISSUER, "authorization_code", 60000, "network_error");
+        metrics.onTokenRequestRetried(ISSUER, 2);
+
+        ReadableMap issuer = metrics.toMap().getMap("tokenRequests").getMap(ISSUER);
+        assertEquals(4, issuer.getDouble("requests"), 0);
+        assertEquals(2, issuer.getDouble("failures"), 0);
+        assertEquals(1, issuer.getDouble("retries"), 0);
+
+        ReadableMap latency = issuer.getMap("latency");
+        ReadableArray bucketsMillis = latency.getArray("bucketsMillis");
+        ReadableArray counts = latency.getArray("counts");
+        // the last bucket is unbounded
+        assertEquals(bucketsMillis.size() + 1, counts.size());
+        assertEquals(2, counts.getDouble(0), 0);
+        assertEquals(1, counts.getDouble(3), 0);
+        assertEquals(1, counts.getDouble(counts.size() - 1), 0);
+        assertEquals(60390, latency.getDouble("sumMillis"), 0);
+        assertEquals(60000, latency.getDouble("maxMillis"), 0);
+    }
+
+    @Test
+    public void countsFailedCallsPerErrorCode() {
+        metrics.onCallFailed("token_refresh_failed");
+        metrics.onCallFailed("token_refresh_failed");
+        metrics.onCallFailed("authentication_failed");
+
+        ReadableMap errors = metrics.toMap().getMap("errors");
+        assertEquals(2, errors.getDouble("token_refresh_failed"), 0);
+        assertEquals(1, errors.getDouble("authentication_failed"), 0);
+    }
+
+    @Test
+    public void startsOverAfterAReset() {
+        metrics.onServiceConfigurationLookup(ISSUER, false);
+        metrics.onTokenRequestCompleted(ISSUER, "refresh_token", 40, null);
+        metrics.onCallFailed("token_refresh_failed");
+
+        metrics.reset();
+
+        ReadableMap map = metrics.toMap();
+        assertEquals(0, map.getMap("serviceConfiguration").getDouble("cacheMisses"), 0);
+        assertEquals(0, map.getMap("tokenRequests").toHashMap().size());
+        assertEquals(0, map.getMap("errors").toHashMap().size());
+    }
+}
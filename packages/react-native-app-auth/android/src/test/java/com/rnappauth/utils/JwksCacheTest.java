@@ -0,0 +1,85 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.net.Uri;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.openid.appauth.connectivity.ConnectionBuilder;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class JwksCacheTest {
+
+    private static final Uri JWKS_URI = Uri.parse("https://issuer.example.com/.well-known/jwks.json");
+
+    private final JwksCache cache = new JwksCache();
+    private final List<Exception> errors = new ArrayList<>();
+    private int fetches = 0;
+
+    private final ConnectionBuilder forbidden = new ConnectionBuilder() {
+        @NonNull
+        @Override
+        public HttpURLConnection openConnection(@NonNull Uri uri) {
+            fetches++;
+            throw new SecurityException("Permission denied (missing INTERNET permission?)");
+        }
+    };
+
+    private final JwksCache.Callback callback = new JwksCache.Callback() {
+        @Override
+        public void onKeysRetrieved(@Nullable JwksCache.KeySet keys, @Nullable Exception ex) {
+            assertNull(keys);
+            errors.add(ex);
+        }
+    };
+
+    @Test
+    public void completesEveryCallerWhenTheFetchThrowsARuntimeException() throws Exception {
+        cache.get(JWKS_URI, forbidden, false, callback);
+        cache.get(JWKS_URI, forbidden, false, callback);
+        awaitErrors(2);
+
+        assertEquals(1, fetches);
+        assertTrue(errors.get(0) instanceof SecurityException);
+        assertTrue(errors.get(1) instanceof SecurityException);
+    }
+
+    @Test
+    public void fetchesAgainAfterAFailedFetch() throws Exception {
+        cache.get(JWKS_URI, forbidden, false, callback);
+        awaitErrors(1);
+
+        cache.get(JWKS_URI, forbidden, false, callback);
+        awaitErrors(2);
+
+        assertEquals(2, fetches);
+    }
+
+    /*
+     * The fetch runs on the network executor and reports back on the main looper, which
+     * Robolectric only runs when asked to
+     */
+    private void awaitErrors(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (errors.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+        assertEquals(count, errors.size());
+    }
+}
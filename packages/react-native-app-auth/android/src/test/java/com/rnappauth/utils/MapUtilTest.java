@@ -0,0 +1,152 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mockStatic;
+
+import com.facebook.react.bridge.Arguments;
+import com.facebook.react.bridge.JavaOnlyArray;
+import com.facebook.react.bridge.JavaOnlyMap;
+import com.facebook.react.bridge.ReadableArray;
+import com.facebook.react.bridge.ReadableMap;
+import com.facebook.react.bridge.ReadableType;
+import com.facebook.react.bridge.WritableArray;
+import com.facebook.react.bridge.WritableMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.MockedStatic;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+
+@RunWith(RobolectricTestRunner.class)
+public class MapUtilTest {
+
+    private MockedStatic<Arguments> arguments;
+
+    @Before
+    public void setUp() {
+        // the native maps need the React Native libraries, which are not loaded in JVM tests
+        arguments = mockStatic(Arguments.class);
+        arguments.when(Arguments::createMap).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return new JavaOnlyMap();
+            }
+        });
+        arguments.when(Arguments::createArray).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) {
+                return new JavaOnlyArray();
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        arguments.close();
+        ConversionOptions.setLargeIntegersAsStrings(false);
+    }
+
+    @Test
+    public void convertsNestedObjectsAndArrays() throws Exception {
+        WritableMap map = MapUtil.convertJsonStringToMap(
+                "{\"address\": {\"country\": \"NL\", \"lines\": [\"a\", [1, 2], {\"b\": true}]}}");
+
+        ReadableMap address = map.getMap("address");
+        assertEquals("NL", address.getString("country"));
+
+        ReadableArray lines = address.getArray("lines");
+        assertEquals(3, lines.size());
+        assertEquals("a", lines.getString(0));
+        assertEquals(2, lines.getArray(1).getInt(1));
+        assertTrue(lines.getMap(2).getBoolean("b"));
+    }
+
+    @Test
+    public void convertsScalars() throws Exception {
+        WritableMap map = MapUtil.convertJsonStringToMap(
+                "{\"null\": null, \"true\": true, \"false\": false, \"int\": -42, \"double\": 1.5,"
+                        + " \"exponent\": 1e2, \"string\": \"value\", \"nulls\": [null]}");
+
+        assertTrue(map.isNull("null"));
+        assertTrue(map.getBoolean("true"));
+        assertFalse(map.getBoolean("false"));
+        assertEquals(-42, map.getInt("int"));
+        assertEquals(1.5, map.getDouble("double"), 0);
+        assertEquals(100, map.getDouble("exponent"), 0);
+        assertEquals("value", map.getString("string"));
+        assertEquals(ReadableType.Null, map.getArray("nulls").getType(0));
+    }
+
+    @Test
+    public void convertsAClaimsDocument() throws Exception {
+        WritableMap claims = new JavaOnlyMap();
+        claims.putBoolean("email_verified", false);
+        claims.putNull("picture");
+        WritableArray audiences = new JavaOnlyArray();
+        audiences.pushString("a");
+        audiences.pushString("b");
+        WritableMap expected = new JavaOnlyMap();
+        expected.putString("sub", "1234");
+        expected.putArray("aud", audiences);
+        expected.putInt("exp", 1700000000);
+        expected.putDouble("ratio", 0.25);
+        expected.putDouble("big", 9007199254740992d);
+        expected.putMap("claims", claims);
+
+        assertEquals(expected, MapUtil.convertJsonStringToMap(
+                "{\"sub\": \"1234\", \"aud\": [\"a\", \"b\"], \"exp\": 1700000000, \"ratio\": 0.25,"
+                        + " \"big\": 9007199254740992, \"claims\": {\"email_verified\": false, \"picture\": null}}"));
+    }
+
+    @Test
+    public void parsesLeniently() throws Exception {
+        WritableMap map = MapUtil.convertJsonStringToMap("{unquoted: 'single quoted'; trailing = 1}");
+
+        assertEquals("single quoted", map.getString("unquoted"));
+        assertEquals(1, map.getInt("trailing"));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsAnArray() throws Exception {
+        MapUtil.convertJsonStringToMap("[{\"a\": 1}]");
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsAString() throws Exception {
+        MapUtil.convertJsonStringToMap("\"a\"");
+    }
+
+    @Test
+    public void sendsIntegersBeyondAnIntAsDoubles() throws Exception {
+        WritableMap map = MapUtil.convertJsonStringToMap("{\"id\": 9007199254740993, \"ids\": [-4294967296]}");
+
+        assertEquals(ReadableType.Number, map.getType("id"));
+        assertEquals(9007199254740992d, map.getDouble("id"), 0);
+        assertEquals(-4294967296d, map.getArray("ids").getDouble(0), 0);
+    }
+
+    @Test
+    public void keepsLargeIntegersAsStringsWhenEnabled() throws Exception {
+        ConversionOptions.setLargeIntegersAsStrings(true);
+
+        WritableMap map = MapUtil.convertJsonStringToMap("{\"safe\": 9007199254740991, \"id\": 9007199254740993,"
+                + " \"negative\": -9007199254740993, \"overflow\": 123456789012345678901234567890,"
+                + " \"ids\": [9007199254740993], \"fraction\": 9007199254740993.5}");
+
+        assertEquals(ReadableType.Number, map.getType("safe"));
+        assertEquals(9007199254740991d, map.getDouble("safe"), 0);
+        assertEquals("9007199254740993", map.getString("id"));
+        assertEquals("-9007199254740993", map.getString("negative"));
+        assertEquals("123456789012345678901234567890", map.getString("overflow"));
+        assertEquals("9007199254740993", map.getArray("ids").getString(0));
+        assertEquals(ReadableType.Number, map.getType("fraction"));
+    }
+}
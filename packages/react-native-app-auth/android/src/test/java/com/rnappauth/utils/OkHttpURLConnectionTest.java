@@ -0,0 +1,95 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+public class OkHttpURLConnectionTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private Request sent;
+
+    /*
+     * Answers every call itself, so the tests see the request the connection built without
+     * going to the network
+     */
+    private final OkHttpClient client = new OkHttpClient.Builder()
+            .addInterceptor(new Interceptor() {
+                @SuppressWarnings("deprecation")
+                @Override
+                public Response intercept(Chain chain) {
+                    sent = chain.request();
+                    return new Response.Builder()
+                            .request(sent)
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(HttpURLConnection.HTTP_OK)
+                            .message("OK")
+                            .body(ResponseBody.create(MediaType.parse("application/json"), "{}"))
+                            .build();
+                }
+            })
+            .build();
+
+    @Test
+    public void sendsTheWrittenBodyWithItsContentType() throws Exception {
+        HttpURLConnection conn = new OkHttpURLConnection(new URL("https://issuer.example.com/token"), client);
+        conn.setRequestMethod("POST");
+        conn.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        conn.setDoOutput(true);
+        OutputStream out = conn.getOutputStream();
+        out.write("grant_type=refresh_token".getBytes(UTF_8));
+        out.close();
+
+        assertEquals(HttpURLConnection.HTTP_OK, conn.getResponseCode());
+        assertEquals("POST", sent.method());
+        assertEquals("application/x-www-form-urlencoded", sent.body().contentType().toString());
+        assertEquals("grant_type=refresh_token", bodyOf(sent));
+    }
+
+    @Test
+    public void sendsAPostWithoutABodyAsEmpty() throws Exception {
+        HttpURLConnection conn = new OkHttpURLConnection(new URL("https://issuer.example.com/token"), client);
+        conn.setRequestMethod("POST");
+
+        assertEquals(HttpURLConnection.HTTP_OK, conn.getResponseCode());
+        assertNull(sent.body().contentType());
+        assertEquals(0, sent.body().contentLength());
+    }
+
+    @Test
+    public void turnsAGetWithABodyIntoAPost() throws Exception {
+        HttpURLConnection conn = new OkHttpURLConnection(new URL("https://issuer.example.com/register"), client);
+        conn.setDoOutput(true);
+        OutputStream out = conn.getOutputStream();
+        out.write("{}".getBytes(UTF_8));
+        out.close();
+
+        assertEquals(HttpURLConnection.HTTP_OK, conn.getResponseCode());
+        assertEquals("POST", sent.method());
+        assertNull(sent.body().contentType());
+        assertEquals("{}", bodyOf(sent));
+    }
+
+    private static String bodyOf(Request request) throws IOException {
+        Buffer buffer = new Buffer();
+        request.body().writeTo(buffer);
+        return buffer.readUtf8();
+    }
+}
@@ -0,0 +1,141 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import net.openid.appauth.AuthorizationException;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.HashSet;
+import java.util.Set;
+
+public class RetryPolicyTest {
+
+    private static final int SAMPLES = 1000;
+
+    private final RetryPolicy policy = new RetryPolicy(5, 100, 1000, false);
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsLessThanOneAttempt() {
+        new RetryPolicy(0, 100, 1000, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsANegativeInitialDelay() {
+        new RetryPolicy(3, -1, 1000, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsAMaxDelayBelowTheInitialDelay() {
+        new RetryPolicy(3, 1000, 100, false);
+    }
+
+    @Test
+    public void retriesUntilTheLastAttempt() {
+        assertTrue(policy.canRetry(1));
+        assertTrue(policy.canRetry(4));
+        assertFalse(policy.canRetry(5));
+        assertFalse(RetryPolicy.NONE.canRetry(1));
+    }
+
+    @Test
+    public void keepsTheJitteredDelayWithinTheDoublingCeiling() {
+        assertDelaysWithin(1, 100);
+        assertDelaysWithin(2, 200);
+        assertDelaysWithin(3, 400);
+        assertDelaysWithin(4, 800);
+    }
+
+    @Test
+    public void capsTheDelayAtTheMaxDelay() {
+        assertDelaysWithin(5, 1000);
+        assertDelaysWithin(40, 1000);
+    }
+
+    @Test
+    public void spreadsTheDelays() {
+        Set<Long> delays = new HashSet<>();
+        for (int i = 0; i < SAMPLES; i++) {
+            delays.add(policy.getDelayMillis(3));
+        }
+        assertTrue(delays.size() > 1);
+    }
+
+    @Test
+    public void neverWaitsWithoutAnInitialDelay() {
+        RetryPolicy immediate = new RetryPolicy(3, 0, 0, false);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertEquals(0, immediate.getDelayMillis(1));
+            assertEquals(0, immediate.getDelayMillis(2));
+        }
+    }
+
+    @Test
+    public void sumsTheCeilingsOfTheRetriedAttempts() {
+        assertEquals(100 + 200 + 400 + 800, policy.getMaxTotalDelayMillis());
+        assertEquals(1000 + 1000, new RetryPolicy(3, 1000, 1000, false).getMaxTotalDelayMillis());
+        assertEquals(0, RetryPolicy.NONE.getMaxTotalDelayMillis());
+    }
+
+    @Test
+    public void retriesGatewayAndAvailabilityStatuses() {
+        for (int status : new int[] {408, 429, 500, 502, 503, 504}) {
+            assertTrue(String.valueOf(status), RetryPolicy.isRetryableStatus(status));
+        }
+        for (int status : new int[] {200, 400, 401, 403, 404, 501}) {
+            assertFalse(String.valueOf(status), RetryPolicy.isRetryableStatus(status));
+        }
+    }
+
+    @Test
+    public void alwaysRetriesConnectFailures() {
+        assertTrue(RetryPolicy.isRetryable(networkError(new UnknownHostException()), false));
+        assertTrue(RetryPolicy.isRetryable(networkError(new ConnectException()), false));
+    }
+
+    @Test
+    public void retriesOtherNetworkErrorsOnlyWhenRepeatable() {
+        assertFalse(RetryPolicy.isRetryable(networkError(new SocketTimeoutException()), false));
+        assertTrue(RetryPolicy.isRetryable(networkError(new SocketTimeoutException()), true));
+    }
+
+    @Test
+    public void retriesServerErrorsOnlyWhenRepeatable() {
+        assertTrue(RetryPolicy.isRetryable(tokenError("temporarily_unavailable"), false));
+        assertFalse(RetryPolicy.isRetryable(tokenError("server_error"), false));
+        assertTrue(RetryPolicy.isRetryable(tokenError("server_error"), true));
+        assertFalse(RetryPolicy.isRetryable(tokenError("invalid_grant"), true));
+        assertFalse(RetryPolicy.isRetryable(null, true));
+    }
+
+    @Test
+    public void retriesUnreadableResponsesOnlyWhenRepeatable() {
+        AuthorizationException htmlErrorPage = AuthorizationException.fromTemplate(
+                AuthorizationException.GeneralErrors.JSON_DESERIALIZATION_ERROR, null);
+
+        assertFalse(RetryPolicy.isRetryable(htmlErrorPage, false));
+        assertTrue(RetryPolicy.isRetryable(htmlErrorPage, true));
+    }
+
+    private void assertDelaysWithin(int attempt, long ceiling) {
+        for (int i = 0; i < SAMPLES; i++) {
+            long delay = policy.getDelayMillis(attempt);
+            assertTrue("attempt " + attempt + " waited " + delay, delay >= 0 && delay <= ceiling);
+        }
+    }
+
+    private static AuthorizationException networkError(IOException cause) {
+        return AuthorizationException.fromTemplate(AuthorizationException.GeneralErrors.NETWORK_ERROR, cause);
+    }
+
+    private static AuthorizationException tokenError(String error) {
+        return new AuthorizationException(AuthorizationException.TYPE_OAUTH_TOKEN_ERROR, 2000, error,
+                null, null, null);
+    }
+}
@@ -0,0 +1,73 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.net.Uri;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.openid.appauth.AuthorizationException;
+import net.openid.appauth.connectivity.ConnectionBuilder;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class ServiceConfigurationFetcherTest {
+
+    private static final Uri DISCOVERY_URI =
+            Uri.parse("https://issuer.example.com/.well-known/openid-configuration");
+
+    private ServiceConfigurationCache.Entry entry;
+    private AuthorizationException exception;
+    private boolean completed = false;
+
+    @Test
+    public void completesWhenTheFetchThrowsARuntimeException() throws Exception {
+        ConnectionBuilder forbidden = new ConnectionBuilder() {
+            @NonNull
+            @Override
+            public HttpURLConnection openConnection(@NonNull Uri uri) {
+                throw new SecurityException("Permission denied (missing INTERNET permission?)");
+            }
+        };
+
+        ServiceConfigurationFetcher.fetch(DISCOVERY_URI, forbidden, null, RetryPolicy.NONE,
+                new ServiceConfigurationFetcher.Callback() {
+                    @Override
+                    public void onFetchCompleted(@Nullable ServiceConfigurationCache.Entry result,
+                            @Nullable AuthorizationException ex) {
+                        entry = result;
+                        exception = ex;
+                        completed = true;
+                    }
+                });
+        awaitCompletion();
+
+        assertNull(entry);
+        assertEquals(AuthorizationException.GeneralErrors.NETWORK_ERROR.code, exception.code);
+        assertTrue(exception.getCause() instanceof SecurityException);
+    }
+
+    /*
+     * The fetch runs on the network executor and reports back on the main looper, which
+     * Robolectric only runs when asked to
+     */
+    private void awaitCompletion() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!completed && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            shadowOf(Looper.getMainLooper()).idle();
+        }
+        assertTrue("the fetch never completed", completed);
+    }
+}
@@ -0,0 +1,54 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class SingleFlightTest {
+
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+
+    @Test
+    public void onlyTheFirstCallerStartsTheOperation() {
+        assertTrue(flights.join("issuer", "first"));
+        assertFalse(flights.join("issuer", "second"));
+        assertFalse(flights.join("issuer", "third"));
+    }
+
+    @Test
+    public void completeReturnsEveryListenerInTheOrderTheyJoined() {
+        flights.join("issuer", "first");
+        flights.join("issuer", "second");
+        flights.join("issuer", "third");
+
+        assertEquals(Arrays.asList("first", "second", "third"), flights.complete("issuer"));
+    }
+
+    @Test
+    public void keysAreIndependent() {
+        assertTrue(flights.join("issuer", "first"));
+        assertTrue(flights.join("other", "second"));
+
+        assertEquals(Collections.singletonList("first"), flights.complete("issuer"));
+        assertEquals(Collections.singletonList("second"), flights.complete("other"));
+    }
+
+    @Test
+    public void aCompletedOperationCanStartAgain() {
+        flights.join("issuer", "first");
+        flights.complete("issuer");
+
+        assertTrue(flights.join("issuer", "second"));
+        assertEquals(Collections.singletonList("second"), flights.complete("issuer"));
+    }
+
+    @Test
+    public void completingAnUnknownKeyReturnsNoListeners() {
+        assertTrue(flights.complete("issuer").isEmpty());
+    }
+}
@@ -0,0 +1,50 @@
+package com.rnappauth.utils;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TokenStoreTest {
+
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 16;
+
+    @Test
+    public void rejectsAnEmptyFile() {
+        assertFalse(TokenStore.isWellFormed(new byte[0]));
+    }
+
+    @Test
+    public void rejectsAFileWithOnlyTheIvLength() {
+        assertFalse(TokenStore.isWellFormed(new byte[] {IV_LENGTH}));
+    }
+
+    @Test
+    public void rejectsAZeroOrNegativeIvLength() {
+        assertFalse(TokenStore.isWellFormed(contents(0, 1 + TAG_LENGTH)));
+        assertFalse(TokenStore.isWellFormed(contents(-1, 1 + IV_LENGTH + TAG_LENGTH)));
+    }
+
+    @Test
+    public void rejectsAFileTruncatedInTheIv() {
+        assertFalse(TokenStore.isWellFormed(contents(IV_LENGTH, 1 + IV_LENGTH - 1)));
+    }
+
+    @Test
+    public void rejectsAFileTruncatedInTheTag() {
+        assertFalse(TokenStore.isWellFormed(contents(IV_LENGTH, 1 + IV_LENGTH + TAG_LENGTH - 1)));
+    }
+
+    @Test
+    public void acceptsAnIvAndATag() {
+        assertTrue(TokenStore.isWellFormed(contents(IV_LENGTH, 1 + IV_LENGTH + TAG_LENGTH)));
+        assertTrue(TokenStore.isWellFormed(contents(IV_LENGTH, 1 + IV_LENGTH + TAG_LENGTH + 100)));
+    }
+
+    private static byte[] contents(int ivLength, int size) {
+        byte[] contents = new byte[size];
+        contents[0] = (byte) ivLength;
+        return contents;
+    }
+}
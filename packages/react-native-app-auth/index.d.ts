@@ -4,6 +4,8 @@ export interface ServiceConfiguration {
   revocationEndpoint?: string;
   registrationEndpoint?: string;
   endSessionEndpoint?: string;
+  /** Android only, the JWKS used when ID token signatures are verified */
+  jwksUri?: string;
 }
 
 export type BaseConfiguration =
@@ -47,9 +49,9 @@ export type RegistrationConfiguration = BaseConfiguration & {
 export interface RegistrationResponse {
   clientId: string;
   additionalParameters?: { [name: string]: string };
-  clientIdIssuedAt?: string;
+  clientIdIssuedAt?: string | number;
   clientSecret?: string;
-  clientSecretExpiresAt?: string;
+  clientSecretExpiresAt?: string | number;
   registrationAccessToken?: string;
   registrationClientUri?: string;
   tokenEndpointAuthMethod?: string;
@@ -78,6 +80,7 @@ export type AuthConfiguration = BaseAuthConfiguration & {
   useNonce?: boolean;
   usePKCE?: boolean;
   warmAndPrefetchChrome?: boolean;
+  warmTokenEndpoint?: boolean;
   skipCodeExchange?: boolean;
   iosCustomBrowser?: 'safari' | 'chrome' | 'opera' | 'firefox';
   androidAllowCustomBrowsers?: (
@@ -89,6 +92,7 @@ export type AuthConfiguration = BaseAuthConfiguration & {
     | 'samsungCustomTab'
   )[];
   androidTrustedWebActivity?: boolean;
+  androidTokenStoreKey?: string;
   iosPrefersEphemeralSession?: boolean;
 };
 
@@ -98,26 +102,62 @@ export type EndSessionConfiguration = BaseAuthConfiguration & {
   iosPrefersEphemeralSession?: boolean;
 };
 
+export interface FlowTimings {
+  configurationSource?: 'provided' | 'cache' | 'network';
+  configurationReady?: number;
+  browserLaunched?: number;
+  redirectReceived?: number;
+  tokenRequestStarted?: number;
+  tokenRequestCompleted?: number;
+  resultConverted?: number;
+}
+
 export interface AuthorizeResult {
   accessToken: string;
-  accessTokenExpirationDate: string;
+  accessTokenExpirationDate: string | number;
   authorizeAdditionalParameters?: { [name: string]: string };
   tokenAdditionalParameters?: { [name: string]: string };
   idToken: string;
+  idTokenClaims?: { [name: string]: any };
   refreshToken: string;
   tokenType: string;
   scopes: string[];
   authorizationCode: string;
   codeVerifier?: string;
+  timings?: FlowTimings;
 }
 
 export interface RefreshResult {
   accessToken: string;
-  accessTokenExpirationDate: string;
+  accessTokenExpirationDate: string | number;
   additionalParameters?: { [name: string]: string };
   idToken: string;
+  idTokenClaims?: { [name: string]: any };
   refreshToken: string | null;
   tokenType: string;
+  timings?: FlowTimings;
+}
+
+export interface ScheduleRefreshConfiguration {
+  refreshToken: string;
+  accessTokenExpirationDate: string | number;
+}
+
+export interface ScheduleRefreshOptions {
+  skewSeconds?: number;
+}
+
+export interface ScheduledRefreshEvent {
+  issuer: string;
+  clientId: string;
+  result?: RefreshResult;
+  error?: { code: ErrorCode; message: string };
+  /** When the failed refresh will be retried, in epoch milliseconds. `null` when the schedule was dropped */
+  retryAt?: number | null;
+}
+
+export interface EventSubscription {
+  remove(): void;
 }
 
 export interface RevokeConfiguration {
@@ -139,8 +179,41 @@ export interface EndSessionResult {
   idTokenHint: string;
   postLogoutRedirectUri: string;
   state: string;
+  timings?: FlowTimings;
+}
+
+export interface RetryOptions {
+  maxAttempts?: number;
+  initialDelayMillis?: number;
+  maxDelayMillis?: number;
+  idempotentRefresh?: boolean;
+}
+
+export interface CircuitBreakerOptions {
+  failureThreshold?: number;
+  resetTimeoutMillis?: number;
 }
 
+export interface ConfigureOptions {
+  dateFormat?: 'iso8601' | 'epochMillis';
+  expandJsonParameters?: boolean;
+  largeIntegersAsStrings?: boolean;
+  decodeIdTokenClaims?: boolean;
+  verifyIdTokenSignatures?: boolean;
+  httpClient?: 'default' | 'okhttp';
+  retry?: RetryOptions;
+  circuitBreaker?: CircuitBreakerOptions | null;
+  networkConcurrency?: number;
+  includeTimings?: boolean;
+}
+
+export const DATE_FORMAT_ISO_8601: 'iso8601';
+export const DATE_FORMAT_EPOCH_MILLIS: 'epochMillis';
+export const HTTP_CLIENT_DEFAULT: 'default';
+export const HTTP_CLIENT_OKHTTP: 'okhttp';
+
+export function configure(options: ConfigureOptions): Promise<void>;
+
 export function prefetchConfiguration(config: AuthConfiguration): Promise<void>;
 
 export function register(config: RegistrationConfiguration): Promise<RegistrationResponse>;
@@ -152,6 +225,45 @@ export function refresh(
   refreshConfig: RefreshConfiguration
 ): Promise<RefreshResult>;
 
+export function scheduleRefresh(
+  config: AuthConfiguration,
+  scheduleConfig: ScheduleRefreshConfiguration,
+  options?: ScheduleRefreshOptions
+): Promise<number | null>;
+
+export function cancelScheduledRefresh(config: BaseAuthConfiguration): Promise<void>;
+
+/** Android only. On other platforms the listener is never called */
+export function addScheduledRefreshListener(
+  listener: (event: ScheduledRefreshEvent) => void
+): EventSubscription;
+
+export function getStoredTokens(key: string): AuthorizeResult | RefreshResult | null;
+
+export function clearStoredTokens(key: string): Promise<void>;
+
+export interface LatencyHistogram {
+  bucketsMillis: number[];
+  counts: number[];
+  sumMillis: number;
+  maxMillis: number;
+}
+
+export interface TokenRequestMetrics {
+  requests: number;
+  failures: number;
+  retries: number;
+  latency: LatencyHistogram;
+}
+
+export interface AuthMetrics {
+  serviceConfiguration: { cacheHits: number; cacheMisses: number };
+  tokenRequests: { [issuer: string]: TokenRequestMetrics };
+  errors: { [code: string]: number };
+}
+
+export function getAuthMetrics(options?: { reset?: boolean }): Promise<AuthMetrics | null>;
+
 export function revoke(
   config: BaseAuthConfiguration,
   revokeConfig: RevokeConfiguration
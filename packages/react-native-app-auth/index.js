@@ -1,5 +1,5 @@
 import invariant from 'invariant';
-import { NativeModules, Platform } from 'react-native';
+import { NativeEventEmitter, NativeModules, Platform } from 'react-native';
 import base64 from 'react-native-base64';
 
 const { RNAppAuth } = NativeModules;
@@ -77,6 +77,12 @@ const validateAdditionalHeaders = headers => {
   );
 };
 
+const validateTokenStoreKey = key =>
+  invariant(
+    key == null || typeof key === 'string',
+    'Config error: if provided, androidTokenStoreKey must be a string'
+  );
+
 const validateConnectionTimeoutSeconds = timeout => {
   if (!timeout) {
     return;
@@ -94,6 +100,145 @@ const convertTimeoutForPlatform = (
   connectionTimeout = Platform.OS === 'ios' ? DEFAULT_TIMEOUT_IOS : DEFAULT_TIMEOUT_ANDROID
 ) => (platform === 'android' ? connectionTimeout * SECOND_IN_MS : connectionTimeout);
 
+export const DATE_FORMAT_ISO_8601 = 'iso8601';
+export const DATE_FORMAT_EPOCH_MILLIS = 'epochMillis';
+export const HTTP_CLIENT_DEFAULT = 'default';
+export const HTTP_CLIENT_OKHTTP = 'okhttp';
+
+const validateRetry = retry => {
+  if (retry == null) {
+    return;
+  }
+
+  invariant(typeof retry === 'object', 'Config error: if provided, retry must be an object');
+  const { maxAttempts, initialDelayMillis, maxDelayMillis, idempotentRefresh } = retry;
+  invariant(
+    maxAttempts == null || (Number.isInteger(maxAttempts) && maxAttempts >= 1),
+    'Config error: if provided, retry.maxAttempts must be an integer of at least 1'
+  );
+  invariant(
+    initialDelayMillis == null || (typeof initialDelayMillis === 'number' && initialDelayMillis >= 0),
+    'Config error: if provided, retry.initialDelayMillis must be a non-negative number'
+  );
+  invariant(
+    maxDelayMillis == null ||
+      (typeof maxDelayMillis === 'number' && maxDelayMillis >= (initialDelayMillis || 0)),
+    'Config error: if provided, retry.maxDelayMillis must be a number of at least retry.initialDelayMillis'
+  );
+  invariant(
+    idempotentRefresh == null || typeof idempotentRefresh === 'boolean',
+    'Config error: if provided, retry.idempotentRefresh must be a boolean'
+  );
+};
+
+const validateCircuitBreaker = circuitBreaker => {
+  if (circuitBreaker == null) {
+    return;
+  }
+
+  invariant(
+    typeof circuitBreaker === 'object',
+    'Config error: if provided, circuitBreaker must be an object or null'
+  );
+  const { failureThreshold, resetTimeoutMillis } = circuitBreaker;
+  invariant(
+    failureThreshold == null || (Number.isInteger(failureThreshold) && failureThreshold >= 1),
+    'Config error: if provided, circuitBreaker.failureThreshold must be an integer of at least 1'
+  );
+  invariant(
+    resetTimeoutMillis == null || (typeof resetTimeoutMillis === 'number' && resetTimeoutMillis >= 0),
+    'Config error: if provided, circuitBreaker.resetTimeoutMillis must be a non-negative number'
+  );
+};
+
+export const configure = async ({
+  dateFormat,
+  expandJsonParameters,
+  largeIntegersAsStrings,
+  decodeIdTokenClaims,
+  verifyIdTokenSignatures,
+  httpClient,
+  retry,
+  circuitBreaker,
+  networkConcurrency,
+  includeTimings,
+} = {}) => {
+  if (Platform.OS !== 'android') {
+    return;
+  }
+
+  invariant(
+    dateFormat == null || [DATE_FORMAT_ISO_8601, DATE_FORMAT_EPOCH_MILLIS].includes(dateFormat),
+    `Config error: if provided, dateFormat must be '${DATE_FORMAT_ISO_8601}' or '${DATE_FORMAT_EPOCH_MILLIS}'`
+  );
+
+  invariant(
+    expandJsonParameters == null || typeof expandJsonParameters === 'boolean',
+    'Config error: if provided, expandJsonParameters must be a boolean'
+  );
+  invariant(
+    largeIntegersAsStrings == null || typeof largeIntegersAsStrings === 'boolean',
+    'Config error: if provided, largeIntegersAsStrings must be a boolean'
+  );
+  invariant(
+    decodeIdTokenClaims == null || typeof decodeIdTokenClaims === 'boolean',
+    'Config error: if provided, decodeIdTokenClaims must be a boolean'
+  );
+  invariant(
+    verifyIdTokenSignatures == null || typeof verifyIdTokenSignatures === 'boolean',
+    'Config error: if provided, verifyIdTokenSignatures must be a boolean'
+  );
+  invariant(
+    httpClient == null || [HTTP_CLIENT_DEFAULT, HTTP_CLIENT_OKHTTP].includes(httpClient),
+    `Config error: if provided, httpClient must be '${HTTP_CLIENT_DEFAULT}' or '${HTTP_CLIENT_OKHTTP}'`
+  );
+  validateRetry(retry);
+  validateCircuitBreaker(circuitBreaker);
+  invariant(
+    networkConcurrency == null || (Number.isInteger(networkConcurrency) && networkConcurrency >= 1),
+    'Config error: if provided, networkConcurrency must be an integer of at least 1'
+  );
+  invariant(
+    includeTimings == null || typeof includeTimings === 'boolean',
+    'Config error: if provided, includeTimings must be a boolean'
+  );
+
+  const options = {};
+  if (dateFormat != null) {
+    options.dateFormat = dateFormat;
+  }
+  if (expandJsonParameters != null) {
+    options.expandJsonParameters = expandJsonParameters;
+  }
+  if (largeIntegersAsStrings != null) {
+    options.largeIntegersAsStrings = largeIntegersAsStrings;
+  }
+  if (decodeIdTokenClaims != null) {
+    options.decodeIdTokenClaims = decodeIdTokenClaims;
+  }
+  if (verifyIdTokenSignatures != null) {
+    options.verifyIdTokenSignatures = verifyIdTokenSignatures;
+  }
+  if (httpClient != null) {
+    options.httpClient = httpClient;
+  }
+  if (retry != null) {
+    options.retry = retry;
+  }
+  // null is passed on, to turn a previously configured circuit breaker off
+  if (circuitBreaker !== undefined) {
+    options.circuitBreaker = circuitBreaker;
+  }
+  if (networkConcurrency != null) {
+    options.networkConcurrency = networkConcurrency;
+  }
+  if (includeTimings != null) {
+    options.includeTimings = includeTimings;
+  }
+
+  await RNAppAuth.configure(options);
+};
+
 export const prefetchConfiguration = async ({
   warmAndPrefetchChrome = false,
   issuer,
@@ -104,6 +249,7 @@ export const prefetchConfiguration = async ({
   dangerouslyAllowInsecureHttpRequests = false,
   customHeaders,
   connectionTimeoutSeconds,
+  warmTokenEndpoint = false,
 }) => {
   if (Platform.OS === 'android') {
     validateIssuerOrServiceConfigurationEndpoints(issuer, serviceConfiguration);
@@ -122,6 +268,7 @@ export const prefetchConfiguration = async ({
       dangerouslyAllowInsecureHttpRequests,
       customHeaders,
       convertTimeoutForPlatform(Platform.OS, connectionTimeoutSeconds),
+      warmTokenEndpoint,
     ];
 
     RNAppAuth.prefetchConfiguration(...nativeMethodArguments);
@@ -212,6 +359,7 @@ export const authorize = ({
   iosCustomBrowser = null,
   androidAllowCustomBrowsers = null,
   androidTrustedWebActivity = false,
+  androidTokenStoreKey = null,
   connectionTimeoutSeconds,
   iosPrefersEphemeralSession = false,
 }) => {
@@ -221,6 +369,7 @@ export const authorize = ({
   validateHeaders(customHeaders);
   validateAdditionalHeaders(additionalHeaders);
   validateConnectionTimeoutSeconds(connectionTimeoutSeconds);
+  validateTokenStoreKey(androidTokenStoreKey);
   // TODO: validateAdditionalParameters
 
   const nativeMethodArguments = [
@@ -243,6 +392,7 @@ export const authorize = ({
     nativeMethodArguments.push(customHeaders);
     nativeMethodArguments.push(androidAllowCustomBrowsers);
     nativeMethodArguments.push(androidTrustedWebActivity);
+    nativeMethodArguments.push(androidTokenStoreKey);
   }
 
   if (Platform.OS === 'ios') {
@@ -271,6 +421,7 @@ export const refresh = (
     additionalHeaders,
     iosCustomBrowser = null,
     androidAllowCustomBrowsers = null,
+    androidTokenStoreKey = null,
     connectionTimeoutSeconds,
   },
   { refreshToken }
@@ -281,6 +432,7 @@ export const refresh = (
   validateHeaders(customHeaders);
   validateAdditionalHeaders(additionalHeaders);
   validateConnectionTimeoutSeconds(connectionTimeoutSeconds);
+  validateTokenStoreKey(androidTokenStoreKey);
   invariant(refreshToken, 'Please pass in a refresh token');
   // TODO: validateAdditionalParameters
 
@@ -301,6 +453,7 @@ export const refresh = (
     nativeMethodArguments.push(dangerouslyAllowInsecureHttpRequests);
     nativeMethodArguments.push(customHeaders);
     nativeMethodArguments.push(androidAllowCustomBrowsers);
+    nativeMethodArguments.push(androidTokenStoreKey);
   }
 
   if (Platform.OS === 'ios') {
@@ -311,6 +464,125 @@ export const refresh = (
   return RNAppAuth.refresh(...nativeMethodArguments);
 };
 
+export const SCHEDULED_REFRESH_EVENT = 'RNAppAuthScheduledRefresh';
+export const DEFAULT_REFRESH_SKEW_SECONDS = 60;
+
+export const scheduleRefresh = async (
+  {
+    issuer,
+    redirectUrl,
+    clientId,
+    clientSecret,
+    scopes,
+    additionalParameters = {},
+    serviceConfiguration,
+    clientAuthMethod = 'basic',
+    dangerouslyAllowInsecureHttpRequests = false,
+    customHeaders,
+    androidAllowCustomBrowsers = null,
+    androidTokenStoreKey = null,
+    connectionTimeoutSeconds,
+  },
+  { refreshToken, accessTokenExpirationDate },
+  { skewSeconds = DEFAULT_REFRESH_SKEW_SECONDS } = {}
+) => {
+  if (Platform.OS !== 'android') {
+    return null;
+  }
+
+  validateIssuerOrServiceConfigurationEndpoints(issuer, serviceConfiguration);
+  validateClientId(clientId);
+  validateRedirectUrl(redirectUrl);
+  validateHeaders(customHeaders);
+  validateConnectionTimeoutSeconds(connectionTimeoutSeconds);
+  validateTokenStoreKey(androidTokenStoreKey);
+  invariant(refreshToken, 'Please pass in a refresh token');
+  const accessTokenExpirationMillis =
+    typeof accessTokenExpirationDate === 'number'
+      ? accessTokenExpirationDate
+      : Date.parse(accessTokenExpirationDate);
+  invariant(
+    !Number.isNaN(accessTokenExpirationMillis),
+    'Please pass in a valid accessTokenExpirationDate'
+  );
+
+  const nativeMethodArguments = [
+    issuer,
+    redirectUrl,
+    clientId,
+    clientSecret,
+    refreshToken,
+    scopes,
+    additionalParameters,
+    serviceConfiguration,
+    convertTimeoutForPlatform(Platform.OS, connectionTimeoutSeconds),
+    clientAuthMethod,
+    dangerouslyAllowInsecureHttpRequests,
+    customHeaders,
+    androidAllowCustomBrowsers,
+    accessTokenExpirationMillis,
+    skewSeconds * SECOND_IN_MS,
+    androidTokenStoreKey,
+  ];
+
+  return RNAppAuth.scheduleRefresh(...nativeMethodArguments);
+};
+
+export const cancelScheduledRefresh = async ({ issuer, clientId, serviceConfiguration }) => {
+  if (Platform.OS !== 'android') {
+    return;
+  }
+
+  validateIssuerOrServiceConfigurationEndpoints(issuer, serviceConfiguration);
+  validateClientId(clientId);
+
+  await RNAppAuth.cancelScheduledRefresh(issuer, clientId, serviceConfiguration);
+};
+
+let eventEmitter;
+
+export const addScheduledRefreshListener = listener => {
+  if (Platform.OS !== 'android') {
+    return { remove: () => {} };
+  }
+
+  if (!eventEmitter) {
+    eventEmitter = new NativeEventEmitter(RNAppAuth);
+  }
+
+  return eventEmitter.addListener(SCHEDULED_REFRESH_EVENT, listener);
+};
+
+export const getStoredTokens = key => {
+  if (Platform.OS !== 'android') {
+    return null;
+  }
+
+  invariant(typeof key === 'string', 'Please pass in the token store key');
+
+  return RNAppAuth.getStoredTokens(key);
+};
+
+export const clearStoredTokens = async key => {
+  if (Platform.OS !== 'android') {
+    return;
+  }
+
+  invariant(typeof key === 'string', 'Please pass in the token store key');
+
+  await RNAppAuth.clearStoredTokens(key);
+};
+
+export const getAuthMetrics = async ({ reset = false } = {}) => {
+  if (Platform.OS !== 'android') {
+    return null;
+  }
+
+  invariant(typeof reset === 'boolean', 'Config error: if provided, reset must be a boolean');
+
+  return RNAppAuth.getAuthMetrics(reset);
+};
+
 export const revoke = async (
   { clientId, issuer, serviceConfiguration, clientSecret },
   { tokenToRevoke, sendClientId = false, includeBasicAuth = false }
@@ -3,18 +3,40 @@ import {
   refresh,
   register,
   logout,
+  prefetchConfiguration,
+  scheduleRefresh,
+  cancelScheduledRefresh,
+  addScheduledRefreshListener,
+  getStoredTokens,
+  clearStoredTokens,
+  getAuthMetrics,
+  configure,
+  DATE_FORMAT_EPOCH_MILLIS,
+  HTTP_CLIENT_OKHTTP,
+  DEFAULT_REFRESH_SKEW_SECONDS,
+  SCHEDULED_REFRESH_EVENT,
   DEFAULT_TIMEOUT_IOS,
   DEFAULT_TIMEOUT_ANDROID,
   SECOND_IN_MS,
 } from './';
 
 jest.mock('react-native', () => ({
+  NativeEventEmitter: jest.fn(() => ({
+    addListener: jest.fn(() => ({ remove: jest.fn() })),
+  })),
   NativeModules: {
     RNAppAuth: {
       register: jest.fn(),
+      prefetchConfiguration: jest.fn(),
       authorize: jest.fn(),
       refresh: jest.fn(),
       logout: jest.fn(),
+      scheduleRefresh: jest.fn(),
+      cancelScheduledRefresh: jest.fn(),
+      getStoredTokens: jest.fn(),
+      configure: jest.fn(),
+      clearStoredTokens: jest.fn(),
+      getAuthMetrics: jest.fn(),
     },
   },
   Platform: {
@@ -69,6 +91,7 @@ describe('AppAuth', () => {
     iosPrefersEphemeralSession: true,
     androidAllowCustomBrowsers: ['chrome'],
     androidTrustedWebActivity: false,
+    androidTokenStoreKey: 'test-tokenStoreKey',
   };
 
   const registerConfig = {
@@ -745,7 +768,8 @@ describe('AppAuth', () => {
             false,
             config.customHeaders,
             config.androidAllowCustomBrowsers,
-            config.androidTrustedWebActivity
+            config.androidTrustedWebActivity,
+            config.androidTokenStoreKey
           );
         });
       });
@@ -769,7 +793,8 @@ describe('AppAuth', () => {
             false,
             config.customHeaders,
             config.androidAllowCustomBrowsers,
-            config.androidTrustedWebActivity
+            config.androidTrustedWebActivity,
+            config.androidTokenStoreKey
           );
         });
 
@@ -791,7 +816,8 @@ describe('AppAuth', () => {
             false,
             config.customHeaders,
             config.androidAllowCustomBrowsers,
-            config.androidTrustedWebActivity
+            config.androidTrustedWebActivity,
+            config.androidTokenStoreKey
           );
         });
 
@@ -813,7 +839,8 @@ describe('AppAuth', () => {
             true,
             config.customHeaders,
             config.androidAllowCustomBrowsers,
-            config.androidTrustedWebActivity
+            config.androidTrustedWebActivity,
+            config.androidTokenStoreKey
           );
         });
       });
@@ -844,7 +871,8 @@ describe('AppAuth', () => {
             false,
             customHeaders,
             config.androidAllowCustomBrowsers,
-            config.androidTrustedWebActivity
+            config.androidTrustedWebActivity,
+            config.androidTokenStoreKey
           );
         });
       });
@@ -999,7 +1027,8 @@ describe('AppAuth', () => {
             config.clientAuthMethod,
             false,
             config.customHeaders,
-            config.androidAllowCustomBrowsers
+            config.androidAllowCustomBrowsers,
+            config.androidTokenStoreKey
           );
         });
       });
@@ -1020,7 +1049,8 @@ describe('AppAuth', () => {
             config.clientAuthMethod,
             false,
             config.customHeaders,
-            config.androidAllowCustomBrowsers
+            config.androidAllowCustomBrowsers,
+            config.androidTokenStoreKey
           );
         });
 
@@ -1039,7 +1069,8 @@ describe('AppAuth', () => {
             config.clientAuthMethod,
             false,
             config.customHeaders,
-            config.androidAllowCustomBrowsers
+            config.androidAllowCustomBrowsers,
+            config.androidTokenStoreKey
           );
         });
 
@@ -1058,7 +1089,8 @@ describe('AppAuth', () => {
             config.clientAuthMethod,
             true,
             config.customHeaders,
-            config.androidAllowCustomBrowsers
+            config.androidAllowCustomBrowsers,
+            config.androidTokenStoreKey
           );
         });
       });
@@ -1082,13 +1114,435 @@ describe('AppAuth', () => {
             config.clientAuthMethod,
             false,
             customHeaders,
-            config.androidAllowCustomBrowsers
+            config.androidAllowCustomBrowsers,
+            config.androidTokenStoreKey
           );
         });
       });
     });
   });
 
+  describe('scheduleRefresh', () => {
+    let mockScheduleRefresh;
+    let mockCancelScheduledRefresh;
+    const refreshToken = 'refresh#token';
+    const accessTokenExpirationDate = '2030-01-01T00:00:00Z';
+
+    beforeAll(() => {
+      mockScheduleRefresh = require('react-native').NativeModules.RNAppAuth.scheduleRefresh;
+      mockScheduleRefresh.mockReturnValue(Promise.resolve(0));
+      mockCancelScheduledRefresh = require('react-native').NativeModules.RNAppAuth
+        .cancelScheduledRefresh;
+      mockCancelScheduledRefresh.mockReturnValue(Promise.resolve());
+    });
+
+    beforeEach(() => {
+      mockScheduleRefresh.mockClear();
+      mockCancelScheduledRefresh.mockClear();
+      require('react-native').Platform.OS = 'android';
+    });
+
+    it('resolves to null without calling the native wrapper on iOS', async () => {
+      require('react-native').Platform.OS = 'ios';
+      await expect(
+        scheduleRefresh(config, { refreshToken, accessTokenExpirationDate })
+      ).resolves.toBeNull();
+      expect(mockScheduleRefresh).not.toHaveBeenCalled();
+    });
+
+    it('throws an error when no refreshToken is passed in', async () => {
+      await expect(scheduleRefresh(config, { accessTokenExpirationDate })).rejects.toThrow(
+        'Please pass in a refresh token'
+      );
+    });
+
+    it('throws an error when accessTokenExpirationDate is not a date', async () => {
+      await expect(
+        scheduleRefresh(config, { refreshToken, accessTokenExpirationDate: 'soon' })
+      ).rejects.toThrow('Please pass in a valid accessTokenExpirationDate');
+    });
+
+    it('calls the native wrapper with the expiry and default skew in milliseconds', async () => {
+      await scheduleRefresh(config, { refreshToken, accessTokenExpirationDate });
+      expect(mockScheduleRefresh).toHaveBeenCalledWith(
+        config.issuer,
+        config.redirectUrl,
+        config.clientId,
+        config.clientSecret,
+        refreshToken,
+        config.scopes,
+        config.additionalParameters,
+        config.serviceConfiguration,
+        TIMEOUT_MILLIS,
+        config.clientAuthMethod,
+        false,
+        config.customHeaders,
+        config.androidAllowCustomBrowsers,
+        Date.parse(accessTokenExpirationDate),
+        DEFAULT_REFRESH_SKEW_SECONDS * SECOND_IN_MS,
+        config.androidTokenStoreKey
+      );
+    });
+
+    it('accepts an expiry in epoch milliseconds', async () => {
+      const accessTokenExpirationMillis = Date.parse(accessTokenExpirationDate);
+      await scheduleRefresh(config, {
+        refreshToken,
+        accessTokenExpirationDate: accessTokenExpirationMillis,
+      });
+      expect(mockScheduleRefresh.mock.calls[0][13]).toBe(accessTokenExpirationMillis);
+    });
+
+    it('calls the native wrapper with a custom skew', async () => {
+      await scheduleRefresh(
+        config,
+        { refreshToken, accessTokenExpirationDate },
+        { skewSeconds: 120 }
+      );
+      expect(mockScheduleRefresh.mock.calls[0][14]).toBe(120 * SECOND_IN_MS);
+    });
+
+    it('cancels a scheduled refresh', async () => {
+      await cancelScheduledRefresh(config);
+      expect(mockCancelScheduledRefresh).toHaveBeenCalledWith(
+        config.issuer,
+        config.clientId,
+        config.serviceConfiguration
+      );
+    });
+
+    it('returns a subscription without creating an event emitter on iOS', () => {
+      require('react-native').Platform.OS = 'ios';
+      const subscription = addScheduledRefreshListener(jest.fn());
+      expect(require('react-native').NativeEventEmitter).not.toHaveBeenCalled();
+      expect(() => subscription.remove()).not.toThrow();
+    });
+
+    it('listens for scheduled refresh events on Android', () => {
+      const listener = jest.fn();
+      addScheduledRefreshListener(listener);
+      const NativeEventEmitter = require('react-native').NativeEventEmitter;
+      expect(NativeEventEmitter).toHaveBeenCalledWith(require('react-native').NativeModules.RNAppAuth);
+      expect(NativeEventEmitter.mock.results[0].value.addListener).toHaveBeenCalledWith(
+        SCHEDULED_REFRESH_EVENT,
+        listener
+      );
+    });
+  });
+
+  describe('prefetchConfiguration', () => {
+    let mockPrefetchConfiguration;
+
+    beforeAll(() => {
+      mockPrefetchConfiguration = require('react-native').NativeModules.RNAppAuth
+        .prefetchConfiguration;
+    });
+
+    beforeEach(() => {
+      mockPrefetchConfiguration.mockClear();
+      require('react-native').Platform.OS = 'android';
+    });
+
+    it('does not call the native wrapper on iOS', async () => {
+      require('react-native').Platform.OS = 'ios';
+      await prefetchConfiguration(config);
+      expect(mockPrefetchConfiguration).not.toHaveBeenCalled();
+    });
+
+    it('calls the native wrapper without warming the token endpoint by default', async () => {
+      await prefetchConfiguration(config);
+      expect(mockPrefetchConfiguration).toHaveBeenCalledWith(
+        false,
+        config.issuer,
+        config.redirectUrl,
+        config.clientId,
+        config.scopes,
+        config.serviceConfiguration,
+        false,
+        config.customHeaders,
+        TIMEOUT_MILLIS,
+        false
+      );
+    });
+
+    it('calls the native wrapper with warmTokenEndpoint', async () => {
+      await prefetchConfiguration({ ...config, warmTokenEndpoint: true });
+      expect(mockPrefetchConfiguration.mock.calls[0][9]).toBe(true);
+    });
+  });
+
+  describe('configure', () => {
+    let mockConfigure;
+
+    beforeAll(() => {
+      mockConfigure = require('react-native').NativeModules.RNAppAuth.configure;
+      mockConfigure.mockReturnValue(Promise.resolve());
+    });
+
+    beforeEach(() => {
+      mockConfigure.mockClear();
+      require('react-native').Platform.OS = 'android';
+    });
+
+    it('does not call the native wrapper on iOS', async () => {
+      require('react-native').Platform.OS = 'ios';
+      await configure({ dateFormat: DATE_FORMAT_EPOCH_MILLIS });
+      expect(mockConfigure).not.toHaveBeenCalled();
+    });
+
+    it('throws an error when dateFormat is not supported', async () => {
+      await expect(configure({ dateFormat: 'rfc2822' })).rejects.toThrow(
+        "Config error: if provided, dateFormat must be 'iso8601' or 'epochMillis'"
+      );
+    });
+
+    it('only passes the options that were provided', async () => {
+      await configure({});
+      expect(mockConfigure).toHaveBeenCalledWith({});
+    });
+
+    it('calls the native wrapper with the date format', async () => {
+      await configure({ dateFormat: DATE_FORMAT_EPOCH_MILLIS });
+      expect(mockConfigure).toHaveBeenCalledWith({ dateFormat: 'epochMillis' });
+    });
+
+    it('throws an error when expandJsonParameters is not a boolean', async () => {
+      await expect(configure({ expandJsonParameters: 'no' })).rejects.toThrow(
+        'Config error: if provided, expandJsonParameters must be a boolean'
+      );
+    });
+
+    it('calls the native wrapper with expandJsonParameters', async () => {
+      await configure({ expandJsonParameters: false });
+      expect(mockConfigure).toHaveBeenCalledWith({ expandJsonParameters: false });
+    });
+
+    it('throws an error when largeIntegersAsStrings is not a boolean', async () => {
+      await expect(configure({ largeIntegersAsStrings: 1 })).rejects.toThrow(
+        'Config error: if provided, largeIntegersAsStrings must be a boolean'
+      );
+    });
+
+    it('calls the native wrapper with all provided options', async () => {
+      await configure({
+        dateFormat: DATE_FORMAT_EPOCH_MILLIS,
+        expandJsonParameters: true,
+        largeIntegersAsStrings: true,
+        decodeIdTokenClaims: true,
+        verifyIdTokenSignatures: true,
+        httpClient: HTTP_CLIENT_OKHTTP,
+        retry: { maxAttempts: 3 },
+        circuitBreaker: { failureThreshold: 5 },
+        networkConcurrency: 8,
+        includeTimings: true,
+      });
+      expect(mockConfigure).toHaveBeenCalledWith({
+        dateFormat: 'epochMillis',
+        expandJsonParameters: true,
+        largeIntegersAsStrings: true,
+        decodeIdTokenClaims: true,
+        verifyIdTokenSignatures: true,
+        httpClient: 'okhttp',
+        retry: { maxAttempts: 3 },
+        circuitBreaker: { failureThreshold: 5 },
+        networkConcurrency: 8,
+        includeTimings: true,
+      });
+    });
+
+    it('throws an error when decodeIdTokenClaims is not a boolean', async () => {
+      await expect(configure({ decodeIdTokenClaims: 'yes' })).rejects.toThrow(
+        'Config error: if provided, decodeIdTokenClaims must be a boolean'
+      );
+    });
+
+    it('calls the native wrapper with the retry options', async () => {
+      const retry = {
+        maxAttempts: 3,
+        initialDelayMillis: 200,
+        maxDelayMillis: 2000,
+        idempotentRefresh: true,
+      };
+      await configure({ retry });
+      expect(mockConfigure).toHaveBeenCalledWith({ retry });
+    });
+
+    it('throws an error when retry is not an object', async () => {
+      await expect(configure({ retry: 3 })).rejects.toThrow(
+        'Config error: if provided, retry must be an object'
+      );
+    });
+
+    it('throws an error when retry.maxAttempts is less than 1', async () => {
+      await expect(configure({ retry: { maxAttempts: 0 } })).rejects.toThrow(
+        'Config error: if provided, retry.maxAttempts must be an integer of at least 1'
+      );
+    });
+
+    it('throws an error when retry.initialDelayMillis is negative', async () => {
+      await expect(configure({ retry: { initialDelayMillis: -1 } })).rejects.toThrow(
+        'Config error: if provided, retry.initialDelayMillis must be a non-negative number'
+      );
+    });
+
+    it('throws an error when retry.maxDelayMillis is less than retry.initialDelayMillis', async () => {
+      await expect(
+        configure({ retry: { initialDelayMillis: 500, maxDelayMillis: 100 } })
+      ).rejects.toThrow(
+        'Config error: if provided, retry.maxDelayMillis must be a number of at least retry.initialDelayMillis'
+      );
+    });
+
+    it('throws an error when retry.idempotentRefresh is not a boolean', async () => {
+      await expect(configure({ retry: { idempotentRefresh: 'yes' } })).rejects.toThrow(
+        'Config error: if provided, retry.idempotentRefresh must be a boolean'
+      );
+    });
+
+    it('calls the native wrapper with the circuit breaker options', async () => {
+      await configure({ circuitBreaker: { failureThreshold: 3, resetTimeoutMillis: 10000 } });
+      expect(mockConfigure).toHaveBeenCalledWith({
+        circuitBreaker: { failureThreshold: 3, resetTimeoutMillis: 10000 },
+      });
+    });
+
+    it('passes a null circuitBreaker to turn it off', async () => {
+      await configure({ circuitBreaker: null });
+      expect(mockConfigure).toHaveBeenCalledWith({ circuitBreaker: null });
+    });
+
+    it('throws an error when circuitBreaker.failureThreshold is less than 1', async () => {
+      await expect(configure({ circuitBreaker: { failureThreshold: 0 } })).rejects.toThrow(
+        'Config error: if provided, circuitBreaker.failureThreshold must be an integer of at least 1'
+      );
+    });
+
+    it('throws an error when circuitBreaker.resetTimeoutMillis is negative', async () => {
+      await expect(configure({ circuitBreaker: { resetTimeoutMillis: -1 } })).rejects.toThrow(
+        'Config error: if provided, circuitBreaker.resetTimeoutMillis must be a non-negative number'
+      );
+    });
+
+    it('throws an error when networkConcurrency is less than 1', async () => {
+      await expect(configure({ networkConcurrency: 0 })).rejects.toThrow(
+        'Config error: if provided, networkConcurrency must be an integer of at least 1'
+      );
+    });
+
+    it('throws an error when networkConcurrency is not an integer', async () => {
+      await expect(configure({ networkConcurrency: 2.5 })).rejects.toThrow(
+        'Config error: if provided, networkConcurrency must be an integer of at least 1'
+      );
+    });
+
+    it('throws an error when includeTimings is not a boolean', async () => {
+      await expect(configure({ includeTimings: 'yes' })).rejects.toThrow(
+        'Config error: if provided, includeTimings must be a boolean'
+      );
+    });
+
+    it('throws an error when httpClient is not supported', async () => {
+      await expect(configure({ httpClient: 'volley' })).rejects.toThrow(
+        "Config error: if provided, httpClient must be 'default' or 'okhttp'"
+      );
+    });
+
+    it('throws an error when verifyIdTokenSignatures is not a boolean', async () => {
+      await expect(configure({ verifyIdTokenSignatures: 1 })).rejects.toThrow(
+        'Config error: if provided, verifyIdTokenSignatures must be a boolean'
+      );
+    });
+  });
+
+  describe('stored tokens', () => {
+    let mockGetStoredTokens;
+    let mockClearStoredTokens;
+    const storedTokens = { accessToken: 'access#token', refreshToken: 'refresh#token' };
+
+    beforeAll(() => {
+      mockGetStoredTokens = require('react-native').NativeModules.RNAppAuth.getStoredTokens;
+      mockGetStoredTokens.mockReturnValue(storedTokens);
+      mockClearStoredTokens = require('react-native').NativeModules.RNAppAuth.clearStoredTokens;
+      mockClearStoredTokens.mockReturnValue(Promise.resolve());
+    });
+
+    beforeEach(() => {
+      mockGetStoredTokens.mockClear();
+      mockClearStoredTokens.mockClear();
+      require('react-native').Platform.OS = 'android';
+    });
+
+    it('returns null without calling the native wrapper on iOS', () => {
+      require('react-native').Platform.OS = 'ios';
+      expect(getStoredTokens(config.androidTokenStoreKey)).toBeNull();
+      expect(mockGetStoredTokens).not.toHaveBeenCalled();
+    });
+
+    it('throws an error when no key is passed in', () => {
+      expect(() => {
+        getStoredTokens();
+      }).toThrow('Please pass in the token store key');
+    });
+
+    it('returns the stored tokens synchronously', () => {
+      expect(getStoredTokens(config.androidTokenStoreKey)).toBe(storedTokens);
+      expect(mockGetStoredTokens).toHaveBeenCalledWith(config.androidTokenStoreKey);
+    });
+
+    it('clears the stored tokens', async () => {
+      await clearStoredTokens(config.androidTokenStoreKey);
+      expect(mockClearStoredTokens).toHaveBeenCalledWith(config.androidTokenStoreKey);
+    });
+
+    it('throws an error when androidTokenStoreKey is not a string', () => {
+      require('react-native').Platform.OS = 'android';
+      expect(() => {
+        authorize({ ...config, androidTokenStoreKey: 42 });
+      }).toThrow('Config error: if provided, androidTokenStoreKey must be a string');
+    });
+  });
+
+  describe('getAuthMetrics', () => {
+    let mockGetAuthMetrics;
+    const metrics = {
+      serviceConfiguration: { cacheHits: 1, cacheMisses: 0 },
+      tokenRequests: {},
+      errors: {},
+    };
+
+    beforeAll(() => {
+      mockGetAuthMetrics = require('react-native').NativeModules.RNAppAuth.getAuthMetrics;
+      mockGetAuthMetrics.mockReturnValue(Promise.resolve(metrics));
+    });
+
+    beforeEach(() => {
+      mockGetAuthMetrics.mockClear();
+      require('react-native').Platform.OS = 'android';
+    });
+
+    it('returns null without calling the native wrapper on iOS', async () => {
+      require('react-native').Platform.OS = 'ios';
+      expect(await getAuthMetrics()).toBeNull();
+      expect(mockGetAuthMetrics).not.toHaveBeenCalled();
+    });
+
+    it('returns the metrics without resetting them by default', async () => {
+      expect(await getAuthMetrics()).toBe(metrics);
+      expect(mockGetAuthMetrics).toHaveBeenCalledWith(false);
+    });
+
+    it('passes on the reset option', async () => {
+      await getAuthMetrics({ reset: true });
+      expect(mockGetAuthMetrics).toHaveBeenCalledWith(true);
+    });
+
+    it('throws an error when reset is not a boolean', async () => {
+      await expect(getAuthMetrics({ reset: 'yes' })).rejects.toThrow(
+        'Config error: if provided, reset must be a boolean'
+      );
+    });
+  });
+
   describe('end session', () => {
     beforeEach(() => {
       mockRegister.mockReset();